@@ -0,0 +1,111 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.AuthenticationApplication;
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.jwt.JwtUtil;
+import com.challenge.authentication.repository.UserRepository;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Spring Security filter chain of the application on its own, from the first security
+ * filter to the servlet, for a public route, a CORS preflight and an authenticated route.
+ *
+ * The application is started once against an in-memory H2 database; the authenticated request
+ * reuses one token, so after the first invocation it is served from the token cache and measures
+ * the chain rather than the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final String ORIGIN = "https://calc-front-eta.vercel.app";
+
+    private ConfigurableApplicationContext context;
+
+    private Filter securityFilterChain;
+
+    private String token;
+
+    private final FilterChain servlet = (request, response) -> { };
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(AuthenticationApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.devtools.restart.enabled=false",
+                "--password.bcrypt.strength=4",
+                "--logging.level.root=WARN");
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+
+        User user = new User();
+        user.setUsername("benchmarkUser");
+        user.setPassword("{noop}unused");
+        context.getBean(UserRepository.class).save(user);
+        token = context.getBean(JwtUtil.class).generateToken("benchmarkUser");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse publicRoute() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.addHeader("Origin", ORIGIN);
+        return filter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse preflight() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/api/auth/me");
+        request.addHeader("Origin", ORIGIN);
+        request.addHeader("Access-Control-Request-Method", "GET");
+        request.addHeader("Access-Control-Request-Headers", "Authorization");
+        return filter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse authenticatedRoute() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.addHeader("Origin", ORIGIN);
+        request.addHeader("Authorization", "Bearer " + token);
+        return filter(request);
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityFilterChain.doFilter(request, response, servlet);
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package com.challenge.authentication.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a rejected login and a rejected registration from the throw of the domain exception to
+ * the serialized error body, leaving out the password check and the servlet stack.
+ *
+ * The exception is thrown {@code stackDepth} frames deep, which is about the depth of a controller
+ * method under Tomcat, the Spring Security filter chain and the DispatcherServlet. Run with
+ * {@code -prof gc} for the bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    @Param({"100"})
+    public int stackDepth;
+
+    private GlobalExceptionHandler handler;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        // The application's ObjectMapper writes dates as ISO-8601 strings
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> invalidCredentials() throws IOException {
+        try {
+            throwAt(stackDepth, () -> new InvalidCredentialsException("Invalid credentials"));
+            throw new AssertionError();
+        } catch (InvalidCredentialsException ex) {
+            return write(handler.handleInvalidCredentialsException(ex));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> userAlreadyExists() throws IOException {
+        try {
+            throwAt(stackDepth, () -> new UserAlreadyExistsException("User already exists"));
+            throw new AssertionError();
+        } catch (UserAlreadyExistsException ex) {
+            return write(handler.handleUserAlreadyExistsException(ex));
+        }
+    }
+
+    private ResponseEntity<?> write(ResponseEntity<?> response) throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), response.getBody());
+        return response;
+    }
+
+    private static void throwAt(int depth, ExceptionFactory factory) {
+        if (depth > 0) {
+            throwAt(depth - 1, factory);
+        } else {
+            throw factory.create();
+        }
+    }
+
+    private interface ExceptionFactory {
+        RuntimeException create();
+    }
+}
@@ -0,0 +1,91 @@
+package com.challenge.authentication.jwt;
+
+import com.challenge.authentication.config.RouteTable;
+import com.challenge.authentication.service.AuthenticatedUser;
+import com.challenge.authentication.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JwtRequestFilter} on an authenticated request, with mock servlet objects and a
+ * user lookup that does not touch a database.
+ *
+ * With {@code cacheSize} 0 every request misses {@link JwtAuthenticationCache} and pays for the
+ * signature verification and the user lookup; otherwise the same token is served from the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private JwtRequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    // Clears the authentication so every invocation goes through the filter's full path
+    private final FilterChain filterChain = (request, response) -> SecurityContextHolder.clearContext();
+
+    @Setup
+    public void setUp() throws ServletException {
+        AuthenticatedUser user = new AuthenticatedUser(42L, "benchmarkUser", "password", List.of());
+        UserService userService = new UserService() {
+            @Override
+            public AuthenticatedUser loadUserByUsername(String username) {
+                return new AuthenticatedUser(user.getId(), username, "password", List.of());
+            }
+        };
+        JwtUtil jwtUtil = new JwtUtil(JwtKeyRing.hmac(JwtUtilBenchmark.SECRET));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "authenticationCache", new JwtAuthenticationCache(cacheSize, meterRegistry));
+        ReflectionTestUtils.setField(filter, "revocationService",
+                new TokenRevocationService(null, Duration.ofSeconds(30), 10000, Duration.ofDays(14),
+                        new RevokedTokenIndex(100000), meterRegistry));
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(filter, "routeTable", new RouteTable(Map.of()));
+        filter.afterPropertiesSet();
+
+        request = new MockHttpServletRequest("GET", "/api/auth/me");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void authenticatedRequest() throws ServletException, IOException {
+        request.removeAttribute(JwtRequestFilter.class.getName() + ".FILTERED");
+        filter.doFilter(request, response, filterChain);
+    }
+}
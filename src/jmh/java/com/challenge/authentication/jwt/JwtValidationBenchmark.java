@@ -0,0 +1,66 @@
+package com.challenge.authentication.jwt;
+
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request cost of validating a bearer token.
+ *
+ * {@code threeParses} reproduces the former filter path, where the token was parsed and verified
+ * in {@code extractUsername}, {@code validateToken} and {@code isTokenExpired}, each time with a
+ * parser built from the base64 secret. {@code singleParse} is the current path through
+ * {@link JwtUtil#parseToken(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "uQfBrZjTy5uxIfbI6XjHV8XGfqdPF2X6Y4NU/UgtZs0=";
+
+    private JwtUtil jwtUtil;
+
+    private UserDetails userDetails;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(JwtKeyRing.hmac(SECRET));
+        userDetails = new User("benchmarkUser", "password", List.of());
+        token = jwtUtil.generateToken("benchmarkUser");
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public boolean threeParses() {
+        String username = Jwts.parser().setSigningKey(SECRET).build().parseClaimsJws(token).getBody().getSubject();
+        String validated = Jwts.parser().setSigningKey(SECRET).build().parseClaimsJws(token).getBody().getSubject();
+        boolean expired = Jwts.parser().setSigningKey(SECRET).build().parseClaimsJws(token).getBody()
+                .getExpiration().before(new Date());
+        return username.equals(userDetails.getUsername()) && validated.equals(userDetails.getUsername()) && !expired;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return jwtUtil.isValidFor(jwtUtil.parseToken(token), userDetails);
+    }
+}
@@ -0,0 +1,57 @@
+package com.challenge.authentication.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-request token revocation check of the JWT filter, with 100,000 revoked tokens,
+ * for a token that was never revoked (the common case, answered by the Bloom filter) and for a
+ * revoked one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevokedTokenIndexBenchmark {
+
+    private RevokedTokenIndex index;
+
+    private String activeTokenId;
+
+    private String revokedTokenId;
+
+    @Setup
+    public void setUp() {
+        index = new RevokedTokenIndex(100_000);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < 100_000; i++) {
+            revokedTokenId = UUID.randomUUID().toString();
+            index.revoke(revokedTokenId, expiresAt);
+        }
+        activeTokenId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean activeToken() {
+        return index.isRevoked(activeTokenId);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return index.isRevoked(revokedTokenId);
+    }
+}
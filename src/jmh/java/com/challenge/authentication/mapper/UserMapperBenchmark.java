@@ -0,0 +1,51 @@
+package com.challenge.authentication.mapper;
+
+import com.challenge.authentication.dto.UserDTO;
+import com.challenge.authentication.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between {@link User} and {@link UserDTO}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserDTO userDTO;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        userDTO = new UserDTO("password", "benchmarkUser");
+        user = UserMapper.toEntity(userDTO);
+        user.setId(42L);
+        user.setBalance(new BigDecimal(100));
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return UserMapper.toEntity(userDTO);
+    }
+
+    @Benchmark
+    public UserDTO toDTO() {
+        return UserMapper.toDTO(user);
+    }
+}
@@ -0,0 +1,88 @@
+package com.challenge.authentication.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the latency and outcome of every request made by one load generator thread.
+ *
+ * Each thread owns its recorder, so recording needs no synchronization; recorders are merged
+ * once the run is over. Latencies are kept exactly (one long per request) rather than in a
+ * histogram, which is affordable for runs of a few minutes and makes the percentiles exact.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private long errors;
+
+    private final Map<Integer, Long> statuses = new LinkedHashMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param latencyNanos the latency of the request
+     * @param status the HTTP status of the response, or -1 if no response was received
+     * @param success whether the status is the one expected for the operation
+     */
+    void record(long latencyNanos, int status, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+        statuses.merge(status, 1L, Long::sum);
+    }
+
+    /**
+     * Adds the requests recorded by another recorder to this one.
+     *
+     * @param other the recorder to merge
+     */
+    void merge(LatencyRecorder other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, count + other.count);
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+    }
+
+    /**
+     * Summarizes the recorded requests.
+     *
+     * @param elapsedSeconds the length of the measurement window, used for the throughput
+     * @return the throughput, error rate and latency percentiles in milliseconds, in report order
+     */
+    Map<String, Object> summarize(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+        summary.put("throughput", count / elapsedSeconds);
+        summary.put("p50", percentile(sorted, 0.50));
+        summary.put("p90", percentile(sorted, 0.90));
+        summary.put("p99", percentile(sorted, 0.99));
+        summary.put("p999", percentile(sorted, 0.999));
+        summary.put("max", count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+        summary.put("statuses", statuses);
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
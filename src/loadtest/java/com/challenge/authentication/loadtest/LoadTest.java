@@ -0,0 +1,384 @@
+package com.challenge.authentication.loadtest;
+
+import com.challenge.authentication.AuthenticationApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the authentication service.
+ *
+ * Unless a {@code --target} is given, the application is started in this JVM with the
+ * {@code loadtest} Spring profile, against an in-memory H2 database seeded by {@link LoadTestSeeder}.
+ * A fixed number of threads then send a weighted mix of register, login and authenticated
+ * ({@code GET /api/auth/me}) requests for a warmup period, whose results are discarded, and for
+ * a measurement period. Throughput, error rates and latency percentiles are printed per operation
+ * and written as JSON to the report file.
+ *
+ * Options, all optional, are passed as {@code --name=value}:
+ * - {@code target}: base URL of an already running instance; its users are registered over HTTP
+ * - {@code users}: number of seeded users (1000)
+ * - {@code concurrency}: number of load generator threads (16)
+ * - {@code warmup} and {@code duration}: e.g. 10s and 30s
+ * - {@code mix}: relative weights, e.g. register=5,login=15,me=80
+ * - {@code rate}: total requests per second; 0 (the default) sends each request as soon as the
+ *   previous one of the same thread completed. With a rate, latencies are measured from the time
+ *   each request was scheduled, so a stalled server is not hidden by the generator slowing down.
+ * - {@code report}: path of the JSON report (target/loadtest-report.json)
+ * - {@code app.<property>}: passed to the started application as {@code --<property>}, e.g.
+ *   {@code --app.spring.datasource.hikari.maximum-pool-size=2}, to compare settings run by run
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "loadtest1";
+
+    private static final int TOKEN_POOL_SIZE = 256;
+
+    private enum Operation {
+        REGISTER, LOGIN, ME
+    }
+
+    private final Settings settings;
+
+    private final URI target;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong registrations = new AtomicLong();
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private AtomicReferenceArray<String> tokens;
+
+    private volatile boolean running = true;
+
+    private volatile boolean recording;
+
+    public LoadTest(Settings settings, URI target) {
+        this.settings = settings;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        ConfigurableApplicationContext context = null;
+        URI target = settings.target;
+        if (target == null) {
+            List<String> applicationArgs = new ArrayList<>(settings.applicationArgs);
+            applicationArgs.add("--loadtest.seed-users=" + settings.users);
+            applicationArgs.add("--loadtest.password=" + PASSWORD);
+            context = new SpringApplicationBuilder(AuthenticationApplication.class)
+                    .profiles("loadtest")
+                    .run(applicationArgs.toArray(String[]::new));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            target = URI.create("http://localhost:" + port);
+        }
+        try {
+            new LoadTest(settings, target).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Prepares the users and tokens, runs the warmup and measurement periods and reports the results.
+     */
+    public void run() throws Exception {
+        if (settings.target != null) {
+            registerUsers();
+        }
+        loginTokenPool();
+
+        List<Map<Operation, LatencyRecorder>> recorders = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency; i++) {
+            Map<Operation, LatencyRecorder> recorder = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorder.put(operation, new LatencyRecorder());
+            }
+            recorders.add(recorder);
+            Thread worker = new Thread(() -> work(recorder), "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+
+        System.out.printf("Load test against %s: %d threads, warmup %s, duration %s%n",
+                target, settings.concurrency, settings.warmup, settings.duration);
+        Thread.sleep(settings.warmup.toMillis());
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(settings.duration.toMillis());
+        recording = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        report(recorders, elapsedSeconds);
+    }
+
+    private void work(Map<Operation, LatencyRecorder> recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long interval = settings.rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(settings.concurrency) / settings.rate) : 0;
+        long next = System.nanoTime() + (interval > 0 ? random.nextLong(interval) : 0);
+        while (running) {
+            long scheduled = System.nanoTime();
+            if (interval > 0) {
+                LockSupport.parkNanos(next - scheduled);
+                scheduled = next;
+                next += interval;
+            }
+            Operation operation = settings.pick(random.nextInt(settings.totalWeight));
+            int status;
+            try {
+                status = execute(operation, random);
+            } catch (IOException e) {
+                status = -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long latency = System.nanoTime() - scheduled;
+            if (recording) {
+                recorder.get(operation).record(latency, status, status == 200);
+            }
+        }
+    }
+
+    private int execute(Operation operation, ThreadLocalRandom random) throws IOException, InterruptedException {
+        return switch (operation) {
+            case REGISTER -> post("/api/auth/register",
+                    "lt-" + runId + "-" + registrations.incrementAndGet()).statusCode();
+            case LOGIN -> {
+                int user = random.nextInt(settings.users);
+                HttpResponse<String> response = post("/api/auth/login", LoadTestSeeder.username(user));
+                if (response.statusCode() == 200 && user < tokens.length()) {
+                    tokens.set(user, token(response));
+                }
+                yield response.statusCode();
+            }
+            case ME -> client.send(HttpRequest.newBuilder(target.resolve("/api/auth/me"))
+                    .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.length())))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        };
+    }
+
+    private HttpResponse<String> post(String path, String username) throws IOException, InterruptedException {
+        String body = "{\"userName\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+        return client.send(HttpRequest.newBuilder(target.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String token(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    /**
+     * Registers the seeded users on an external target, ignoring those that already exist.
+     */
+    private void registerUsers() throws Exception {
+        System.out.printf("Registering %d users on %s%n", settings.users, target);
+        List<Thread> threads = new ArrayList<>();
+        AtomicLong nextUser = new AtomicLong();
+        for (int i = 0; i < settings.concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                for (long n = nextUser.getAndIncrement(); n < settings.users; n = nextUser.getAndIncrement()) {
+                    try {
+                        int status = post("/api/auth/register", LoadTestSeeder.username((int) n)).statusCode();
+                        if (status != 200 && status != 409) {
+                            throw new IllegalStateException("Registration failed with status " + status);
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        throw new IllegalStateException("Registration failed", e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Logs a sample of the seeded users in, so that authenticated requests have tokens to use.
+     * Logins made during the run replace the token of the user they were made for.
+     */
+    private void loginTokenPool() throws IOException, InterruptedException {
+        tokens = new AtomicReferenceArray<>(Math.min(settings.users, TOKEN_POOL_SIZE));
+        for (int i = 0; i < tokens.length(); i++) {
+            HttpResponse<String> response = post("/api/auth/login", LoadTestSeeder.username(i));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of " + LoadTestSeeder.username(i)
+                        + " failed with status " + response.statusCode());
+            }
+            tokens.set(i, token(response));
+        }
+    }
+
+    private void report(List<Map<Operation, LatencyRecorder>> recorders, double elapsedSeconds) throws IOException {
+        Map<String, Object> operations = new LinkedHashMap<>();
+        LatencyRecorder total = new LatencyRecorder();
+        for (Operation operation : Operation.values()) {
+            LatencyRecorder merged = new LatencyRecorder();
+            recorders.forEach(recorder -> merged.merge(recorder.get(operation)));
+            total.merge(merged);
+            operations.put(operation.name().toLowerCase(), merged.summarize(elapsedSeconds));
+        }
+        operations.put("total", total.summarize(elapsedSeconds));
+
+        System.out.printf("%n%-10s %10s %8s %8s %12s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "error%", "throughput", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        operations.forEach((name, value) -> {
+            Map<?, ?> summary = (Map<?, ?>) value;
+            System.out.printf("%-10s %10d %8d %8.2f %10.1f/s %9.2f %9.2f %9.2f %9.2f%n", name,
+                    summary.get("requests"), summary.get("errors"), (double) summary.get("errorRate") * 100,
+                    summary.get("throughput"), summary.get("p50"), summary.get("p99"), summary.get("p999"),
+                    summary.get("max"));
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("target", target.toString());
+        report.put("users", settings.users);
+        report.put("concurrency", settings.concurrency);
+        report.put("rate", settings.rate);
+        report.put("mix", settings.mix);
+        report.put("warmupSeconds", settings.warmup.toSeconds());
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("latencyUnit", "ms");
+        report.put("operations", operations);
+        Files.createDirectories(settings.report.toAbsolutePath().getParent());
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.report.toFile(), report);
+        System.out.printf("%nReport written to %s%n", settings.report.toAbsolutePath());
+    }
+
+    /**
+     * Options of a load test run.
+     */
+    static final class Settings {
+
+        URI target;
+
+        int users = 1000;
+
+        int concurrency = 16;
+
+        Duration warmup = Duration.ofSeconds(10);
+
+        Duration duration = Duration.ofSeconds(30);
+
+        double rate;
+
+        Map<String, Integer> mix = new LinkedHashMap<>();
+
+        Path report = Path.of("target", "loadtest-report.json");
+
+        List<String> applicationArgs = new ArrayList<>();
+
+        private Operation[] weighted;
+
+        int totalWeight;
+
+        Settings() {
+            mix.put("register", 5);
+            mix.put("login", 15);
+            mix.put("me", 80);
+        }
+
+        static Settings parse(String[] args) {
+            Map<String, String> options = new HashMap<>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+
+            Settings settings = new Settings();
+            options.forEach((name, value) -> {
+                if (name.startsWith("app.")) {
+                    settings.applicationArgs.add("--" + name.substring("app.".length()) + "=" + value);
+                }
+            });
+            if (options.containsKey("target")) {
+                settings.target = URI.create(options.get("target"));
+            }
+            settings.users = Integer.parseInt(options.getOrDefault("users", String.valueOf(settings.users)));
+            settings.concurrency = Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(settings.concurrency)));
+            settings.rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+            if (options.containsKey("warmup")) {
+                settings.warmup = DurationStyle.detectAndParse(options.get("warmup"));
+            }
+            if (options.containsKey("duration")) {
+                settings.duration = DurationStyle.detectAndParse(options.get("duration"));
+            }
+            if (options.containsKey("report")) {
+                settings.report = Path.of(options.get("report"));
+            }
+            if (options.containsKey("mix")) {
+                settings.mix = new LinkedHashMap<>();
+                for (String entry : options.get("mix").split(",")) {
+                    String[] weight = entry.split("=");
+                    settings.mix.put(weight[0].trim().toLowerCase(), Integer.parseInt(weight[1].trim()));
+                }
+            }
+            settings.initMix();
+            return settings;
+        }
+
+        private void initMix() {
+            List<Operation> slots = new ArrayList<>();
+            for (Operation operation : Operation.values()) {
+                int weight = mix.getOrDefault(operation.name().toLowerCase(), 0);
+                for (int i = 0; i < weight; i++) {
+                    slots.add(operation);
+                }
+            }
+            if (slots.isEmpty()) {
+                throw new IllegalArgumentException("The mix must give a positive weight to at least one operation");
+            }
+            weighted = slots.toArray(new Operation[0]);
+            totalWeight = weighted.length;
+        }
+
+        Operation pick(int n) {
+            return weighted[n];
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.challenge.authentication.loadtest;
+
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the load test database with {@code loadtest.seed-users} users named {@code loadtest-<n>}.
+ *
+ * All seeded users share the same password, so it is hashed once with the configured encoder
+ * instead of once per user; logins still pay the full BCrypt cost.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestSeeder.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.seed-users}")
+    private int seedUsers;
+
+    @Value("${loadtest.password}")
+    private String password;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String hash = passwordEncoder.encode(password);
+        List<User> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < seedUsers; i++) {
+            User user = new User();
+            user.setUsername(username(i));
+            user.setPassword(hash);
+            user.setBalance(new BigDecimal(100));
+            batch.add(user);
+            if (batch.size() == BATCH_SIZE || i == seedUsers - 1) {
+                userRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        log.info("Seeded {} load test users", seedUsers);
+    }
+
+    /**
+     * Returns the username of the n-th seeded user.
+     *
+     * @param n the index of the user, from 0 to {@code loadtest.seed-users - 1}
+     * @return the username
+     */
+    public static String username(int n) {
+        return "loadtest-" + n;
+    }
+}
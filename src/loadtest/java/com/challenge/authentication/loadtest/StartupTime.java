@@ -0,0 +1,343 @@
+package com.challenge.authentication.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from the start of the process to the first successful login, for each way of
+ * packaging and starting the application built by {@code ./mvnw -Pprod package} and, if it exists,
+ * for the native executable built by {@code ./mvnw -Pnative package}.
+ *
+ * Each mode starts the application as a separate process against the same database, which is
+ * migrated once with the {@code migrate} profile and seeded with one user. The time is taken from
+ * launching the process to the first {@code 200} answer to {@code POST /api/auth/login}, polled every
+ * few milliseconds, and the resident set size of the process is read right after that answer; each
+ * mode is started {@code runs} times and the medians are reported. The modes with class data sharing
+ * first run their own training run, since an archive only applies to the class path it was created with.
+ *
+ * Without a {@code url}, the database is an H2 file whose driver is added to the class path of the
+ * JVM modes. The native executable holds only the drivers it was built with, so the native mode
+ * runs only against a MySQL database given by {@code url}.
+ *
+ * Options, all optional, are passed as {@code --name=value}:
+ * - {@code jar}: the repackaged jar (target/authentication-0.0.1-SNAPSHOT.jar)
+ * - {@code app}: the directory the jar was extracted to (target/app)
+ * - {@code native}: the native executable (target/authentication)
+ * - {@code url}, {@code username}, {@code password}: JDBC URL and credentials of a MySQL database
+ * - {@code runs}: number of starts per mode (3)
+ * - {@code port}: HTTP port of the started instances (18081)
+ * - {@code report}: path of the JSON report (target/startup-report.json)
+ */
+public class StartupTime {
+
+    private static final String MAIN_CLASS = "com.challenge.authentication.AuthenticationApplication";
+
+    private static final String PROPERTIES_LAUNCHER = "org.springframework.boot.loader.launch.PropertiesLauncher";
+
+    private static final String USERNAME = "startupUser";
+
+    private static final String PASSWORD = "startup1";
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * What a mode starts.
+     */
+    enum Launch {
+        JAR, EXTRACTED, NATIVE
+    }
+
+    /**
+     * A way of starting the application.
+     *
+     * @param name the name of the mode in the report
+     * @param launch the repackaged jar, the extracted jar or the native executable
+     * @param profile the Spring profile, or null for the default profile
+     * @param aot true to use the AOT-processed bean definitions
+     * @param cds true to use a class data sharing archive
+     */
+    record Mode(String name, Launch launch, String profile, boolean aot, boolean cds) {
+    }
+
+    private static final List<Mode> MODES = List.of(
+            new Mode("jar", Launch.JAR, null, false, false),
+            new Mode("jar-prod", Launch.JAR, "prod", false, false),
+            new Mode("extracted-prod", Launch.EXTRACTED, "prod", false, false),
+            new Mode("extracted-prod-cds", Launch.EXTRACTED, "prod", false, true),
+            new Mode("extracted-prod-aot-cds", Launch.EXTRACTED, "prod", true, true),
+            new Mode("native", Launch.NATIVE, "prod", false, false));
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private final Path jar;
+
+    private final Path app;
+
+    private final Path nativeExecutable;
+
+    private final String url;
+
+    private final String username;
+
+    private final String password;
+
+    private final Path h2;
+
+    private final Path work;
+
+    private final int runs;
+
+    private final int port;
+
+    private final Path report;
+
+    public StartupTime(Map<String, String> options) {
+        this.jar = Path.of(options.getOrDefault("jar", "target/authentication-0.0.1-SNAPSHOT.jar")).toAbsolutePath();
+        this.app = Path.of(options.getOrDefault("app", "target/app")).toAbsolutePath();
+        this.nativeExecutable = Path.of(options.getOrDefault("native", "target/authentication")).toAbsolutePath();
+        this.url = options.get("url");
+        this.username = options.getOrDefault("username", "root");
+        this.password = options.getOrDefault("password", "");
+        this.runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        this.port = Integer.parseInt(options.getOrDefault("port", "18081"));
+        this.report = Path.of(options.getOrDefault("report", "target/startup-report.json"));
+        this.work = Path.of("target", "startup").toAbsolutePath();
+        // The application jars hold no embedded database; H2 comes from the class path of this tool
+        this.h2 = url != null ? null : Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(Path::of)
+                .filter(entry -> entry.getFileName().toString().matches("h2-.*\\.jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("H2 is not on the class path"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        new StartupTime(options).run();
+    }
+
+    /**
+     * Prepares the database, measures every mode and reports the results.
+     */
+    public void run() throws Exception {
+        if (!Files.isRegularFile(jar) || !Files.isDirectory(app)) {
+            throw new IllegalStateException("Build the application with ./mvnw -Pprod package first");
+        }
+        deleteRecursively(work);
+        Files.createDirectories(work);
+
+        exitAfterRefresh(command(new Mode("migrate", Launch.EXTRACTED, "prod,migrate", false, false), List.of()),
+                "migration");
+        Process seed = start(command(new Mode("seed", Launch.EXTRACTED, "prod", false, false), List.of()));
+        try {
+            awaitStatus(seed, "/api/auth/register", 200, 409);
+        } finally {
+            stop(seed);
+        }
+
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        System.out.printf("%-24s %10s %10s %10s%n", "mode", "median ms", "min ms", "RSS MiB");
+        for (Mode mode : MODES) {
+            if (mode.launch() == Launch.NATIVE && !Files.isRegularFile(nativeExecutable)) {
+                System.out.printf("%-24s skipped, build it with ./mvnw -Pnative package%n", mode.name());
+                continue;
+            }
+            if (mode.launch() == Launch.NATIVE && url == null) {
+                System.out.printf("%-24s skipped, the native executable needs a MySQL database given by --url%n",
+                        mode.name());
+                continue;
+            }
+            List<String> jvmArgs = new ArrayList<>();
+            if (mode.cds()) {
+                Path archive = work.resolve(mode.name() + ".jsa");
+                List<String> training = List.of("-XX:ArchiveClassesAtExit=" + archive);
+                exitAfterRefresh(command(mode, training), "training run of " + mode.name());
+                jvmArgs.add("-XX:SharedArchiveFile=" + archive);
+            }
+            List<Long> millis = new ArrayList<>();
+            List<Long> rssKib = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                long[] measured = timeToFirstLogin(command(mode, jvmArgs));
+                millis.add(measured[0]);
+                rssKib.add(measured[1]);
+            }
+            millis.sort(null);
+            rssKib.sort(null);
+            long median = millis.get(millis.size() / 2);
+            long medianRssKib = rssKib.get(rssKib.size() / 2);
+            System.out.printf("%-24s %10d %10d %10d%n", mode.name(), median, millis.get(0), medianRssKib / 1024);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("medianMillis", median);
+            result.put("minMillis", millis.get(0));
+            result.put("runsMillis", millis);
+            result.put("medianRssKib", medianRssKib);
+            results.put(mode.name(), result);
+        }
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), results);
+        System.out.println("Report written to " + report);
+    }
+
+    /**
+     * Starts the application and waits for the first successful login.
+     *
+     * @return the time to the login in milliseconds and the resident set size after it in KiB
+     */
+    private long[] timeToFirstLogin(List<String> command) throws Exception {
+        long started = System.nanoTime();
+        Process process = start(command);
+        try {
+            awaitStatus(process, "/api/auth/login", 200);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            return new long[] {millis, residentSetKib(process)};
+        } finally {
+            stop(process);
+        }
+    }
+
+    // Linux only; other systems report 0
+    private static long residentSetKib(Process process) throws IOException {
+        Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return 0;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(0L);
+        }
+    }
+
+    private List<String> command(Mode mode, List<String> jvmArgs) {
+        List<String> command = new ArrayList<>();
+        if (mode.launch() == Launch.NATIVE) {
+            command.add(nativeExecutable.toString());
+        } else {
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        }
+        command.addAll(jvmArgs);
+        if (mode.aot()) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        String classPathSuffix = h2 == null ? "" : File.pathSeparator + h2;
+        if (mode.launch() == Launch.EXTRACTED) {
+            // The extracted jar lists its dependencies in its manifest; H2 is appended after it
+            command.add("-cp");
+            command.add(app.resolve(jar.getFileName()) + classPathSuffix);
+            command.add(MAIN_CLASS);
+        } else if (mode.launch() == Launch.JAR) {
+            if (h2 != null) {
+                command.add("-Dloader.path=" + h2);
+            }
+            command.add("-cp");
+            command.add(jar.toString());
+            command.add(PROPERTIES_LAUNCHER);
+        }
+        if (mode.profile() != null) {
+            command.add("--spring.profiles.active=" + mode.profile());
+        }
+        command.add("--server.port=" + port);
+        if (url == null) {
+            command.add("--spring.datasource.url=jdbc:h2:file:" + work.resolve("db")
+                    + ";MODE=MySQL;NON_KEYWORDS=USER;IGNORE_UNKNOWN_SETTINGS=TRUE");
+            command.add("--spring.datasource.username=sa");
+            command.add("--spring.datasource.password=");
+            command.add("--spring.datasource.driver-class-name=org.h2.Driver");
+        } else {
+            command.add("--spring.datasource.url=" + url);
+            command.add("--spring.datasource.username=" + username);
+            command.add("--spring.datasource.password=" + password);
+        }
+        command.add("--rate-limit.enabled=false");
+        return command;
+    }
+
+    private Process start(List<String> command) throws IOException {
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(work.resolve("application.log").toFile())
+                .start();
+    }
+
+    private void exitAfterRefresh(List<String> command, String description) throws Exception {
+        List<String> exitOnRefresh = new ArrayList<>(command);
+        exitOnRefresh.add(1, "-Dspring.context.exit=onRefresh");
+        Process process = start(exitOnRefresh);
+        if (!process.waitFor(START_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || process.exitValue() != 0) {
+            process.destroyForcibly();
+            throw new IllegalStateException("The " + description + " failed, see " + work.resolve("application.log"));
+        }
+    }
+
+    private void awaitStatus(Process process, String path, int... expected) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"userName\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited, see " + work.resolve("application.log"));
+            }
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (Arrays.stream(expected).anyMatch(code -> code == status)) {
+                    return;
+                }
+                throw new IllegalStateException("POST " + path + " answered " + status);
+            } catch (ConnectException e) {
+                Thread.sleep(5);
+            }
+        }
+        throw new IllegalStateException("The application did not answer within " + START_TIMEOUT);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.challenge.authentication.cli;
+
+import com.challenge.authentication.service.UserTransferService;
+import com.challenge.authentication.service.UserTransferService.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Command line entry point for exporting and importing users.
+ *
+ * Started with {@code --users.export=<file>} or {@code --users.import=<file>}, the application
+ * exports or imports the users through {@link UserTransferService} and exits, with status 1 if
+ * the transfer failed. Files ending in {@code .gz} are compressed. Without either option, this
+ * runner does nothing.
+ */
+@Component
+public class UserTransferCommand implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserTransferCommand.class);
+
+    private static final String EXPORT_OPTION = "users.export";
+
+    private static final String IMPORT_OPTION = "users.import";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private UserTransferService userTransferService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Path exportFile = file(args, EXPORT_OPTION);
+        Path importFile = file(args, IMPORT_OPTION);
+        if (exportFile == null && importFile == null) {
+            return;
+        }
+
+        int exitCode = 0;
+        try {
+            if (exportFile != null) {
+                exportUsers(exportFile);
+            } else {
+                importUsers(importFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("User transfer failed", e);
+            exitCode = 1;
+        }
+        final int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+
+    private void exportUsers(Path file) throws IOException {
+        long started = System.nanoTime();
+        try (OutputStream out = openOutput(file)) {
+            long exported = userTransferService.exportUsers(out);
+            logger.info("Exported {} users to {} in {} ms", exported, file, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private void importUsers(Path file) throws IOException {
+        long started = System.nanoTime();
+        try (InputStream in = openInput(file)) {
+            ImportResult result = userTransferService.importUsers(in);
+            logger.info("Imported {} users from {} in {} ms, skipped {} existing or incomplete users",
+                    result.imported(), file, (System.nanoTime() - started) / 1_000_000, result.skipped());
+        }
+    }
+
+    private static InputStream openInput(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return isCompressed(file)
+                ? new GZIPInputStream(in, BUFFER_SIZE)
+                : new BufferedInputStream(in, BUFFER_SIZE);
+    }
+
+    private static OutputStream openOutput(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return isCompressed(file)
+                ? new GZIPOutputStream(out, BUFFER_SIZE)
+                : new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    private static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(".gz");
+    }
+
+    private static Path file(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        if (values.size() > 1 || values.get(0).isBlank()) {
+            throw new IllegalArgumentException("--" + option + " takes exactly one file");
+        }
+        return Path.of(values.get(0));
+    }
+}
@@ -0,0 +1,57 @@
+package com.challenge.authentication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Configuration class for sizing the Hikari connection pool.
+ *
+ * When {@code datasource.pool.auto-size} is enabled, the pool is given a fixed size derived from
+ * the number of cores and the expected number of concurrent database operations, instead of the
+ * static {@code spring.datasource.hikari.maximum-pool-size}. The size follows HikariCP's
+ * guideline of about two connections per core plus one, is never larger than the expected
+ * concurrency, and is capped by {@code datasource.pool.max-size}, the connection limit of the
+ * database plan.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && environment.getProperty("datasource.pool.auto-size", Boolean.class, false)) {
+                    int expectedConcurrency = environment.getRequiredProperty("datasource.pool.expected-concurrency", Integer.class);
+                    int maxSize = environment.getRequiredProperty("datasource.pool.max-size", Integer.class);
+                    int size = poolSize(Runtime.getRuntime().availableProcessors(), expectedConcurrency, maxSize);
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                    logger.info("Sized connection pool {} to {} connections", dataSource.getPoolName(), size);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Computes the connection pool size.
+     *
+     * @param cores the number of available processors
+     * @param expectedConcurrency the expected number of concurrent database operations
+     * @param maxSize the maximum number of connections the database accepts from this instance
+     * @return the pool size, at least 2
+     */
+    static int poolSize(int cores, int expectedConcurrency, int maxSize) {
+        int size = Math.min(cores * 2 + 1, expectedConcurrency);
+        return Math.max(2, Math.min(size, maxSize));
+    }
+}
@@ -0,0 +1,90 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.jwt.JwtKeyRing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration class for the keys tokens are signed and verified with.
+ *
+ * {@code jwt.algorithm} selects the signature algorithm. HS256, the default, signs with the shared
+ * {@code jwt.secret}. RS256, ES256 and EdDSA sign with the private key of the {@code jwt.signing-key-id}
+ * entry of the PKCS#12 key store at {@code jwt.keystore.location}, and publish the public keys of
+ * every entry; without a key store, a key pair is generated at startup.
+ */
+@Configuration
+public class JwtConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtConfig.class);
+
+    private static final String HMAC_ALGORITHM = "HS256";
+
+    /**
+     * Creates the key ring used by {@link com.challenge.authentication.jwt.JwtUtil}.
+     *
+     * @param algorithm the signature algorithm: HS256, RS256, ES256 or EdDSA
+     * @param secret the Base64 encoded HS256 secret
+     * @param keyStoreLocation the location of the PKCS#12 key store, or empty to generate a key pair
+     * @param keyStorePassword the password of the key store and its private keys
+     * @param signingKeyId the alias of the key store entry that signs new tokens; may be empty if the
+     *                     key store holds a single private key
+     * @param resourceLoader the loader used to resolve the key store location
+     * @return the key ring
+     * @throws IOException if the key store cannot be read
+     * @throws GeneralSecurityException if the key store or one of its entries cannot be loaded
+     */
+    @Bean
+    public JwtKeyRing jwtKeyRing(@Value("${jwt.algorithm}") String algorithm,
+                                 @Value("${jwt.secret}") String secret,
+                                 @Value("${jwt.keystore.location}") String keyStoreLocation,
+                                 @Value("${jwt.keystore.password}") String keyStorePassword,
+                                 @Value("${jwt.signing-key-id}") String signingKeyId,
+                                 ResourceLoader resourceLoader) throws IOException, GeneralSecurityException {
+        if (HMAC_ALGORITHM.equals(algorithm)) {
+            return JwtKeyRing.hmac(secret);
+        }
+        if (keyStoreLocation.isBlank()) {
+            logger.warn("No jwt.keystore.location configured, generating an ephemeral {} key pair: "
+                    + "tokens will not survive a restart nor be accepted by other instances", algorithm);
+            return JwtKeyRing.generate(algorithm);
+        }
+
+        Resource resource = resourceLoader.getResource(keyStoreLocation);
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = resource.getInputStream()) {
+            keyStore.load(in, keyStorePassword.toCharArray());
+        }
+        if (signingKeyId.isBlank()) {
+            List<String> keyEntries = Collections.list(keyStore.aliases()).stream()
+                    .filter(alias -> isKeyEntry(keyStore, alias))
+                    .toList();
+            if (keyEntries.size() != 1) {
+                throw new IllegalStateException("jwt.signing-key-id must name one of the key entries " + keyEntries);
+            }
+            signingKeyId = keyEntries.get(0);
+        }
+        JwtKeyRing keyRing = JwtKeyRing.fromKeyStore(algorithm, keyStore, keyStorePassword.toCharArray(), signingKeyId);
+        logger.info("Signing tokens with {} key {} from {}", algorithm, signingKeyId, keyStoreLocation);
+        return keyRing;
+    }
+
+    private static boolean isKeyEntry(KeyStore keyStore, String alias) {
+        try {
+            return keyStore.isKeyEntry(alias);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.dto.AuthRequestDTO;
+import com.challenge.authentication.dto.AuthResponseDTO;
+import com.challenge.authentication.dto.BulkRegistrationResultDTO;
+import com.challenge.authentication.dto.ProblemDTO;
+import com.challenge.authentication.dto.RefreshTokenRequestDTO;
+import com.challenge.authentication.dto.UserDTO;
+import com.challenge.authentication.dto.UserExportDTO;
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.entity.UserEntityListener;
+import com.challenge.authentication.repository.UserCredentials;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native image built with {@code ./mvnw -Pnative package}.
+ *
+ * Spring AOT derives most of the metadata from the bean definitions, and the metadata of the other
+ * dependencies comes from the GraalVM reachability metadata repository. This class adds what neither
+ * covers: the classes jjwt loads by name, the types Jackson binds outside of controller signatures,
+ * and the JPA types Hibernate creates reflectively beyond the entity itself. On the JVM the hints
+ * have no effect.
+ *
+ * The password encoder needs no metadata: {@link PasswordEncoderConfig} is called from the generated
+ * bean definitions, and the {@link java.security.SecureRandom} of BCrypt is created and seeded when
+ * the application starts, not when the image is built.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.AuthenticationRuntimeHints.class)
+@RegisterReflectionForBinding({AuthRequestDTO.class, AuthResponseDTO.class, BulkRegistrationResultDTO.class,
+        ProblemDTO.class, RefreshTokenRequestDTO.class, UserDTO.class, UserExportDTO.class})
+public class NativeHintsConfig {
+
+    /**
+     * Implementation classes jjwt-api instantiates, or calls static methods of, by name through
+     * {@code io.jsonwebtoken.lang.Classes}, so that the API does not depend on jjwt-impl at compile time.
+     * The metadata repository only knows the classes of jjwt 0.11.
+     */
+    static final List<String> JJWT_IMPL_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms");
+
+    /**
+     * Service interfaces jjwt-impl looks up with {@link java.util.ServiceLoader}, mapped to the
+     * implementation jjwt-jackson provides.
+     */
+    static final List<List<String>> JJWT_SERVICES = List.of(
+            List.of("io.jsonwebtoken.io.Serializer", "io.jsonwebtoken.jackson.io.JacksonSerializer"),
+            List.of("io.jsonwebtoken.io.Deserializer", "io.jsonwebtoken.jackson.io.JacksonDeserializer"));
+
+    /**
+     * Registers the reflection and resource hints of jjwt and of the JPA types.
+     */
+    static class AuthenticationRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String className : JJWT_IMPL_CLASSES) {
+                hints.reflection().registerType(TypeReference.of(className),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+            for (List<String> service : JJWT_SERVICES) {
+                hints.resources().registerPattern("META-INF/services/" + service.get(0));
+                hints.reflection().registerType(TypeReference.of(service.get(1)),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+
+            // Spring AOT registers the entity and the callbacks of its listener, but not the field Spring's
+            // bean container injects into the listener Hibernate asks it to create
+            hints.reflection().registerType(User.class, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+            hints.reflection().registerType(UserEntityListener.class, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            // Hibernate instantiates the projection of findCredentialsByUsername through its constructor
+            hints.reflection().registerType(UserCredentials.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
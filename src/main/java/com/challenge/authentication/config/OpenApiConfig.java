@@ -0,0 +1,48 @@
+package com.challenge.authentication.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * Configuration of the OpenAPI documentation served by springdoc under {@code /v3/api-docs} and
+ * {@code /swagger-ui}.
+ */
+@Configuration
+public class OpenApiConfig {
+
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    /**
+     * Marks the beans of springdoc as lazy, so the documentation is set up on the first request to it
+     * rather than while the application starts. Beans that other beans need at startup, such as its
+     * Spring MVC configurers, are still created then.
+     *
+     * @return the bean factory post-processor
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazySpringdocBeans() {
+        return beanFactory -> {
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                if (isSpringdocBean(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static boolean isSpringdocBean(BeanDefinition definition) {
+        String className = definition.getBeanClassName();
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                className = factoryMethod.getDeclaringClassName();
+            }
+        }
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
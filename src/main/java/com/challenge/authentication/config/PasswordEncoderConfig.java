@@ -1,21 +1,116 @@
 package com.challenge.authentication.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * Configuration class for setting up the password encoder.
  * This class is annotated with @Configuration, indicating that it is a
  * source of bean definitions for the application context.
- * It declares a single bean of type PasswordEncoder which applies
- * the BCrypt hashing algorithm for password encoding.
+ * It declares a bean of type PasswordEncoder which applies
+ * the BCrypt hashing algorithm, with a cost calibrated to the hardware, for password encoding, and the bounded
+ * executor on which hashing and verification run, off the servlet threads.
  */
 @Configuration
 public class PasswordEncoderConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    private static final int REFERENCE_STRENGTH = 8;
+
+    private static final int MAX_STRENGTH = 31;
+
+    /**
+     * Creates the password encoder.
+     *
+     * New hashes are written as {@code {bcrypt}...} with the configured BCrypt strength or, if none is
+     * configured, with the strength calibrated at startup to the target time per hash. Calibration
+     * runs on each instance, so on a fleet of mixed hardware the instances would disagree and the
+     * fastest one would rehash everyone's passwords at a cost the slowest cannot afford; production
+     * therefore pins the strength, and calibration never goes above {@code maxStrength}. Hashes without
+     * an id prefix are still verified as BCrypt. Hashes with a missing prefix or a lower strength are
+     * reported by {@link PasswordEncoder#upgradeEncoding(String)}, so they can be rehashed at login.
+     * Hashing and verification times are recorded by {@link TimedPasswordEncoder}.
+     *
+     * @param strength the BCrypt strength to use, or 0 to calibrate it
+     * @param targetTime the time a single hash should take when the strength is calibrated
+     * @param minStrength the lowest strength calibration may pick
+     * @param maxStrength the highest strength calibration may pick
+     * @param meterRegistry the registry the hashing timers are published to
+     * @return the password encoder
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength}") int strength,
+                                           @Value("${password.bcrypt.target-time}") Duration targetTime,
+                                           @Value("${password.bcrypt.min-strength}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength}") int maxStrength,
+                                           MeterRegistry meterRegistry) {
+        int effectiveStrength = strength > 0 ? strength : calibrateStrength(targetTime, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(effectiveStrength);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new TimedPasswordEncoder(encoder, meterRegistry);
+    }
+
+    /**
+     * Picks the BCrypt strength whose hashing time is closest to the target on this machine.
+     *
+     * The cost of BCrypt doubles with every strength step, so a hash is timed at a reference strength
+     * and the result is extrapolated, instead of timing every candidate strength.
+     *
+     * @param targetTime the time a single hash should take
+     * @param minStrength the lowest strength that may be returned
+     * @param maxStrength the highest strength that may be returned
+     * @return the calibrated strength
+     */
+    static int calibrateStrength(Duration targetTime, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder reference = new BCryptPasswordEncoder(REFERENCE_STRENGTH);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            reference.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        double steps = Math.log((double) targetTime.toNanos() / fastest) / Math.log(2);
+        int strength = Math.max(minStrength, Math.min(Math.min(maxStrength, MAX_STRENGTH),
+                REFERENCE_STRENGTH + (int) Math.round(steps)));
+        logger.info("Calibrated BCrypt strength {} for a target of {} ms per hash (strength {} took {} ms)",
+                strength, targetTime.toMillis(), REFERENCE_STRENGTH, fastest / 1_000_000);
+        return strength;
+    }
+
+    /**
+     * Creates the executor used for password hashing and verification.
+     *
+     * The pool has one thread per core by default, since BCrypt is CPU bound, and a bounded queue.
+     * Once the queue is full, further tasks are rejected instead of queuing without limit.
+     *
+     * @param poolSize the number of hashing threads, or 0 to use the number of available processors
+     * @param queueCapacity the maximum number of tasks waiting for a hashing thread
+     * @return the executor for password hashing tasks
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public ThreadPoolTaskExecutor passwordHashingExecutor(@Value("${password.hashing.pool-size}") int poolSize,
+                                                          @Value("${password.hashing.queue-capacity}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        return executor;
     }
 }
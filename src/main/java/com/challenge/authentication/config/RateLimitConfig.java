@@ -0,0 +1,31 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.ratelimit.InMemoryRateLimiter;
+import com.challenge.authentication.ratelimit.RateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the backend of the login and registration rate limits.
+ *
+ * With {@code rate-limit.backend=local}, the default, each instance keeps its own buckets in memory,
+ * so a client gets the configured limits from every instance. A shared backend is plugged in by
+ * setting another value and defining a {@link RateLimiter} bean for it.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Creates the in-memory rate limiter.
+     *
+     * @param maximumKeys the maximum number of buckets kept at once
+     * @return the rate limiter
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.backend", havingValue = "local", matchIfMissing = true)
+    public RateLimiter inMemoryRateLimiter(@Value("${rate-limit.maximum-keys}") long maximumKeys) {
+        return new InMemoryRateLimiter(maximumKeys);
+    }
+}
@@ -0,0 +1,70 @@
+package com.challenge.authentication.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CORS configuration of every route, built from the {@link SecuritySettings} and rebuilt when they change.
+ *
+ * The configuration applies to all paths, so a request is answered with the current configuration
+ * without any path matching; a change swaps in a new configuration atomically.
+ */
+public class ReloadableCorsConfigurationSource implements CorsConfigurationSource {
+
+    private final AtomicReference<CorsConfiguration> configuration;
+
+    public ReloadableCorsConfigurationSource(SecuritySettings settings) {
+        this.configuration = new AtomicReference<>(toCorsConfiguration(settings));
+    }
+
+    @Override
+    public CorsConfiguration getCorsConfiguration(HttpServletRequest request) {
+        return configuration.get();
+    }
+
+    /**
+     * Rebuilds the CORS configuration after the security settings changed.
+     *
+     * @param event the event carrying the new settings
+     */
+    @EventListener
+    public void onSettingsChanged(SecuritySettingsChangedEvent event) {
+        configuration.set(toCorsConfiguration(event.settings()));
+    }
+
+    /**
+     * Checks the origins of settings that are not in effect yet, so that settings with a malformed
+     * origin are rejected before they replace the current ones.
+     *
+     * @param settings the candidate settings
+     * @throws IllegalArgumentException if an origin is neither {@code *} nor a scheme and host, with an optional port
+     */
+    static void validate(SecuritySettings settings) {
+        for (String origin : settings.allowedOrigins()) {
+            if (origin.equals(CorsConfiguration.ALL)) {
+                continue;
+            }
+            URI uri = URI.create(origin);
+            boolean hasPath = uri.getRawPath() != null && !uri.getRawPath().isEmpty();
+            if (uri.getScheme() == null || uri.getHost() == null || hasPath
+                    || uri.getRawQuery() != null || uri.getRawFragment() != null) {
+                throw new IllegalArgumentException("Invalid CORS origin: " + origin);
+            }
+        }
+    }
+
+    private static CorsConfiguration toCorsConfiguration(SecuritySettings settings) {
+        CorsConfiguration corsConfig = new CorsConfiguration();
+        corsConfig.setAllowedOrigins(settings.allowedOrigins());
+        corsConfig.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        corsConfig.setAllowedHeaders(List.of("*"));
+        corsConfig.setMaxAge(settings.corsMaxAge());
+        return corsConfig;
+    }
+}
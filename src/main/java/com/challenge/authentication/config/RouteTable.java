@@ -0,0 +1,175 @@
+package com.challenge.authentication.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classifies requests by the access they require, in one place for the whole security filter chain.
+ *
+ * The routes come from the {@link SecuritySettings} and are compiled once per change: literal paths
+ * go into a hash map, and the remaining patterns are parsed into {@link PathPattern}s, which match
+ * without regular expressions. A change swaps the compiled routes atomically, so matching takes no
+ * lock. A request is classified once; the result is kept as a request attribute, so
+ * {@link com.challenge.authentication.jwt.JwtRequestFilter} and the authorization rules of
+ * {@link SecurityConfig} read the same decision. Paths that match no route require authentication.
+ */
+@Component
+public class RouteTable {
+
+    private static final String ACCESS_ATTRIBUTE = RouteTable.class.getName() + ".ACCESS";
+
+    /**
+     * The access a route requires.
+     */
+    public enum Access {
+        /** Open to anyone; no bearer token is read. */
+        PUBLIC,
+        /** API documentation, open to anyone; no bearer token is read. */
+        DOCS,
+        /** Requires a valid bearer token. */
+        AUTHENTICATED
+    }
+
+    private final AtomicReference<Routes> routes;
+
+    /**
+     * Compiles the routes of the current security settings and follows their changes.
+     *
+     * @param settingsHolder the holder of the security settings
+     */
+    @Autowired
+    public RouteTable(SecuritySettingsHolder settingsHolder) {
+        this(routesOf(settingsHolder.current()));
+    }
+
+    /**
+     * Compiles the given routes. Literal paths take precedence over patterns, and patterns are
+     * tried in the given order.
+     *
+     * @param routes the access required by each path pattern
+     */
+    public RouteTable(Map<String, Access> routes) {
+        this.routes = new AtomicReference<>(Routes.compile(routes));
+    }
+
+    /**
+     * Recompiles the routes after the security settings changed. Requests already classified keep
+     * their decision; later requests see the new routes.
+     *
+     * @param event the event carrying the new settings
+     */
+    @EventListener
+    public void onSettingsChanged(SecuritySettingsChangedEvent event) {
+        routes.set(Routes.compile(routesOf(event.settings())));
+    }
+
+    /**
+     * Compiles the routes of settings that are not in effect yet, so that settings with a pattern that
+     * cannot be parsed are rejected before they replace the current ones.
+     *
+     * @param settings the candidate settings
+     * @throws IllegalArgumentException if a route is not a valid path pattern
+     */
+    static void validate(SecuritySettings settings) {
+        Routes.compile(routesOf(settings));
+    }
+
+    private static Map<String, Access> routesOf(SecuritySettings settings) {
+        Map<String, Access> routes = new LinkedHashMap<>();
+        settings.publicRoutes().forEach(route -> routes.put(route, Access.PUBLIC));
+        settings.docsRoutes().forEach(route -> routes.putIfAbsent(route, Access.DOCS));
+        return routes;
+    }
+
+    /**
+     * Returns the access the given request requires, classifying it on the first call.
+     *
+     * Only the decision for the original dispatch is kept; error and forward dispatches, whose path
+     * differs, are classified again.
+     *
+     * @param request the HTTP request
+     * @return the access required by the route matching the request path
+     */
+    public Access classify(HttpServletRequest request) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return classify(request.getRequestURI().substring(request.getContextPath().length()));
+        }
+        Access access = (Access) request.getAttribute(ACCESS_ATTRIBUTE);
+        if (access == null) {
+            access = classify(request.getRequestURI().substring(request.getContextPath().length()));
+            request.setAttribute(ACCESS_ATTRIBUTE, access);
+        }
+        return access;
+    }
+
+    /**
+     * Returns the access the given path requires.
+     *
+     * @param path the request path, without the context path
+     * @return the access required by the route matching the path
+     */
+    public Access classify(String path) {
+        return routes.get().classify(path);
+    }
+
+    /**
+     * Returns a request matcher for the requests requiring the given access.
+     *
+     * @param access the access
+     * @return a matcher that classifies the request through this table
+     */
+    public RequestMatcher matcher(Access access) {
+        return request -> classify(request) == access;
+    }
+
+    /**
+     * One compiled set of routes, replaced as a whole when the settings change.
+     */
+    private record Routes(Map<String, Access> literalRoutes, List<Map.Entry<PathPattern, Access>> patternRoutes) {
+
+        static Routes compile(Map<String, Access> routes) {
+            PathPatternParser parser = new PathPatternParser();
+            Map<String, Access> literalRoutes = new HashMap<>();
+            List<Map.Entry<PathPattern, Access>> patternRoutes = new ArrayList<>();
+            routes.forEach((route, access) -> {
+                PathPattern pattern = parser.parse(route);
+                if (pattern.hasPatternSyntax()) {
+                    patternRoutes.add(Map.entry(pattern, access));
+                } else {
+                    literalRoutes.put(route, access);
+                }
+            });
+            return new Routes(literalRoutes, patternRoutes);
+        }
+
+        Access classify(String path) {
+            Access access = literalRoutes.get(path);
+            if (access != null) {
+                return access;
+            }
+            if (!patternRoutes.isEmpty()) {
+                PathContainer pathContainer = PathContainer.parsePath(path);
+                for (Map.Entry<PathPattern, Access> route : patternRoutes) {
+                    if (route.getKey().matches(pathContainer)) {
+                        return route.getValue();
+                    }
+                }
+            }
+            return Access.AUTHENTICATED;
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package com.challenge.authentication.config;
 
 import com.challenge.authentication.jwt.JwtRequestFilter;
+import com.challenge.authentication.repository.UserConstraints;
 import com.challenge.authentication.service.UserService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.cors.CorsConfigurationSource;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Security configuration class that enables web security and configures various security settings
@@ -32,6 +46,12 @@ public class SecurityConfig {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RouteTable routeTable;
+
+    @Value("${registration.bulk.allowed-users}")
+    private List<String> bulkRegistrationUsers;
+
     /**
      * Creates and configures an {@link AuthenticationManager} with a custom {@link UserService} and {@link PasswordEncoder}.
      * This allows the application to manage user authentication.
@@ -52,6 +72,11 @@ public class SecurityConfig {
      * Configures the SecurityFilterChain with custom security settings. This includes configuring CORS, disabling CSRF,
      * setting up authorization rules, and adding JWT request filters.
      *
+     * Which routes are open is decided by the {@link RouteTable}, which the JWT request filter also
+     * consults, so each request is classified once. CORS preflight requests are answered by the CORS
+     * filter, ahead of the JWT request filter and the authorization rules. Bulk registration is only
+     * open to the users listed in {@code registration.bulk.allowed-users}.
+     *
      * @param http an HttpSecurity object used to configure web-based security for specific HTTP requests
      * @return a SecurityFilterChain object representing the filter chain used by Spring Security
      * @throws Exception if an error occurs while configuring the HttpSecurity object
@@ -59,20 +84,14 @@ public class SecurityConfig {
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
-                .cors(cors -> cors.configurationSource(request -> {
-                    var corsConfig = new org.springframework.web.cors.CorsConfiguration();
-                    corsConfig.setAllowedOrigins(List.of(
-                            "https://calc-front-eta.vercel.app/",
-                            "https://calculator-challenge-new.vercel.app/"
-                    ));
-                    corsConfig.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-                    corsConfig.setAllowedHeaders(List.of("*"));
-                    return corsConfig;
-                }))
+                .cors(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
-                        .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Async dispatches resume requests that were already authorized, such as streamed responses
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/auth/register/bulk").access(bulkRegistrationAccess())
+                        .requestMatchers(routeTable.matcher(RouteTable.Access.PUBLIC)).permitAll()
+                        .requestMatchers(routeTable.matcher(RouteTable.Access.DOCS)).permitAll()
                         .anyRequest().authenticated()
                 );
 
@@ -80,4 +99,51 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * Grants bulk registration to authenticated users in {@code registration.bulk.allowed-users},
+     * compared case-insensitively like usernames in the database. Anyone can obtain a token through
+     * the public registration endpoint, so being authenticated alone is not enough.
+     *
+     * @return the authorization manager of the bulk registration endpoint
+     */
+    private AuthorizationManager<RequestAuthorizationContext> bulkRegistrationAccess() {
+        Set<String> allowed = bulkRegistrationUsers.stream()
+                .map(String::trim)
+                .filter(username -> !username.isEmpty())
+                .map(UserConstraints::usernameKey)
+                .collect(Collectors.toUnmodifiableSet());
+        return (authentication, context) -> {
+            Authentication current = authentication.get();
+            return new AuthorizationDecision(current != null && current.isAuthenticated()
+                    && !(current instanceof AnonymousAuthenticationToken)
+                    && allowed.contains(UserConstraints.usernameKey(current.getName())));
+        };
+    }
+
+    /**
+     * Creates the CORS configuration applied by the security filter chain to every route. It is the
+     * only CORS configuration of the application, so requests are not processed again by Spring MVC.
+     * The allowed origins and the preflight max-age follow changes of the security settings.
+     *
+     * @param settingsHolder the holder of the security settings
+     * @return the CORS configuration source
+     */
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource(SecuritySettingsHolder settingsHolder) {
+        return new ReloadableCorsConfigurationSource(settingsHolder.current());
+    }
+
+    /**
+     * Keeps the servlet container from running the JWT request filter on its own: as a bean, it would
+     * otherwise also be registered as a servlet filter, outside of the security filter chain.
+     *
+     * @return the disabled registration of the JWT request filter
+     */
+    @Bean
+    public FilterRegistrationBean<JwtRequestFilter> jwtRequestFilterRegistration() {
+        FilterRegistrationBean<JwtRequestFilter> registration = new FilterRegistrationBean<>(jwtRequestFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
@@ -0,0 +1,35 @@
+package com.challenge.authentication.config;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The security settings that can be changed while the application runs, as one immutable value.
+ *
+ * The current settings are held by {@link SecuritySettingsHolder}; a change replaces the whole
+ * value, so a request never sees a mix of old and new settings.
+ *
+ * @param allowedOrigins the origins of the front-ends allowed to call the API ({@code cors.allowed-origins})
+ * @param corsMaxAge how long browsers may cache the result of a preflight request ({@code cors.max-age})
+ * @param accessTokenTtl how long new access tokens are valid ({@code jwt.access-token.ttl})
+ * @param publicRoutes the path patterns open without a token ({@code security.routes.public})
+ * @param docsRoutes the path patterns of the API documentation, open without a token ({@code security.routes.docs})
+ */
+public record SecuritySettings(List<String> allowedOrigins,
+                               Duration corsMaxAge,
+                               Duration accessTokenTtl,
+                               List<String> publicRoutes,
+                               List<String> docsRoutes) {
+
+    public SecuritySettings {
+        allowedOrigins = List.copyOf(allowedOrigins);
+        publicRoutes = List.copyOf(publicRoutes);
+        docsRoutes = List.copyOf(docsRoutes);
+        if (corsMaxAge.isNegative()) {
+            throw new IllegalArgumentException("cors.max-age must not be negative");
+        }
+        if (accessTokenTtl.isNegative() || accessTokenTtl.isZero()) {
+            throw new IllegalArgumentException("jwt.access-token.ttl must be positive");
+        }
+    }
+}
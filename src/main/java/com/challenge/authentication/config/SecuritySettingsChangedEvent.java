@@ -0,0 +1,12 @@
+package com.challenge.authentication.config;
+
+/**
+ * Application event published by {@link SecuritySettingsHolder} after the security settings changed.
+ *
+ * Components that compile the settings into their own structures, such as the {@link RouteTable},
+ * listen to this event to rebuild them.
+ *
+ * @param settings the settings now in effect
+ */
+public record SecuritySettingsChangedEvent(SecuritySettings settings) {
+}
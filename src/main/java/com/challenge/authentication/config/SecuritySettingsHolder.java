@@ -0,0 +1,93 @@
+package com.challenge.authentication.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link SecuritySettings} currently in effect.
+ *
+ * The settings start from the application properties and are replaced as a whole, copy-on-write,
+ * by {@link #update(SecuritySettings)}. Reading them is a single volatile read, so the request path
+ * never takes a lock.
+ */
+@Component
+public class SecuritySettingsHolder {
+
+    private final SecuritySettings initialSettings;
+
+    private final AtomicReference<SecuritySettings> settings;
+
+    private final Duration refreshTokenTtl;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SecuritySettingsHolder(@Value("${cors.allowed-origins}") List<String> allowedOrigins,
+                                  @Value("${cors.max-age}") Duration corsMaxAge,
+                                  @Value("${jwt.access-token.ttl}") Duration accessTokenTtl,
+                                  @Value("${jwt.refresh-token.ttl}") Duration refreshTokenTtl,
+                                  @Value("${security.routes.public}") List<String> publicRoutes,
+                                  @Value("${security.routes.docs}") List<String> docsRoutes,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.eventPublisher = eventPublisher;
+        this.initialSettings = validate(new SecuritySettings(allowedOrigins, corsMaxAge, accessTokenTtl,
+                publicRoutes, docsRoutes));
+        this.settings = new AtomicReference<>(initialSettings);
+    }
+
+    /**
+     * Returns the settings currently in effect.
+     *
+     * @return the current settings
+     */
+    public SecuritySettings current() {
+        return settings.get();
+    }
+
+    /**
+     * Returns the settings read from the application properties at startup, which a reload starts from.
+     *
+     * @return the startup settings
+     */
+    public SecuritySettings initial() {
+        return initialSettings;
+    }
+
+    /**
+     * Replaces the settings in effect and, if they differ from the previous ones, publishes a
+     * {@link SecuritySettingsChangedEvent}.
+     *
+     * The new settings are checked as a whole before anything is replaced, including the routes and
+     * CORS origins that the listeners of the event build from them, so settings that are rejected
+     * leave the current ones, and everything built from them, untouched.
+     *
+     * @param newSettings the new settings
+     * @return true if the settings changed, false if they were equal to the current ones
+     * @throws IllegalArgumentException if the access token lifetime exceeds the refresh token lifetime,
+     *         a route is not a valid path pattern or an origin is malformed
+     */
+    public boolean update(SecuritySettings newSettings) {
+        SecuritySettings previous = settings.getAndSet(validate(newSettings));
+        if (previous.equals(newSettings)) {
+            return false;
+        }
+        eventPublisher.publishEvent(new SecuritySettingsChangedEvent(newSettings));
+        return true;
+    }
+
+    private SecuritySettings validate(SecuritySettings candidate) {
+        // Revocations are kept for the refresh token lifetime, so no token may outlive it
+        if (candidate.accessTokenTtl().compareTo(refreshTokenTtl) > 0) {
+            throw new IllegalArgumentException("jwt.access-token.ttl must not exceed jwt.refresh-token.ttl ("
+                    + refreshTokenTtl + ")");
+        }
+        RouteTable.validate(candidate);
+        ReloadableCorsConfigurationSource.validate(candidate);
+        return candidate;
+    }
+}
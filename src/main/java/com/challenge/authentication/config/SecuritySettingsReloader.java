@@ -0,0 +1,185 @@
+package com.challenge.authentication.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the {@link SecuritySettings} from a properties file while the application runs.
+ *
+ * The file is named by {@code security.settings.file}; without it, the settings never change. It
+ * holds any of the properties {@code cors.allowed-origins}, {@code cors.max-age},
+ * {@code jwt.access-token.ttl}, {@code security.routes.public} and {@code security.routes.docs};
+ * properties missing from the file keep their startup value.
+ *
+ * The directory of the file is watched, so the file may be replaced by a rename or a symbolic link
+ * swap (as in a Kubernetes config map) as well as edited in place. Every change is read after
+ * {@code security.settings.debounce}, validated and swapped in as a whole; a file that cannot be
+ * read or holds invalid values is logged and the settings in effect are kept.
+ */
+@Component
+public class SecuritySettingsReloader implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecuritySettingsReloader.class);
+
+    private final SecuritySettingsHolder settingsHolder;
+
+    private final Path file;
+
+    private final Duration debounce;
+
+    private final MeterRegistry meterRegistry;
+
+    private volatile WatchService watchService;
+
+    private volatile Thread watcher;
+
+    public SecuritySettingsReloader(SecuritySettingsHolder settingsHolder,
+                                    @Value("${security.settings.file}") String file,
+                                    @Value("${security.settings.debounce}") Duration debounce,
+                                    MeterRegistry meterRegistry) {
+        this.settingsHolder = settingsHolder;
+        this.file = file.isBlank() ? null : Path.of(file).toAbsolutePath();
+        this.debounce = debounce;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies the file, if it exists, and starts watching its directory.
+     */
+    @Override
+    public void start() {
+        if (file == null) {
+            return;
+        }
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch security settings file " + file, e);
+        }
+        reload();
+        Thread thread = new Thread(this::watch, "security-settings-reloader");
+        thread.setDaemon(true);
+        thread.start();
+        watcher = thread;
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = watcher;
+        watcher = null;
+        if (thread != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close the watch service of {}", file, e);
+            }
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    /**
+     * Reads the file and applies its settings. If the file does not exist, the startup settings apply.
+     *
+     * @return true if the settings in effect changed
+     */
+    public boolean reload() {
+        try {
+            SecuritySettings settings = read();
+            boolean changed = settingsHolder.update(settings);
+            if (changed) {
+                logger.info("Security settings reloaded from {}: {}", file, settings);
+            }
+            count(changed ? "changed" : "unchanged");
+            return changed;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring invalid security settings file {}, the settings in effect are kept", file, e);
+            count("invalid");
+            return false;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (watcher != null) {
+                WatchKey key = watchService.take();
+                // Editors and config map updates write in several steps; read once they are done
+                TimeUnit.MILLISECONDS.sleep(debounce.toMillis());
+                // Every event of the directory is covered by one reload; unrelated files leave the settings unchanged
+                key.pollEvents();
+                boolean valid = key.reset();
+                reload();
+                if (!valid) {
+                    logger.warn("The directory of {} is no longer accessible, security settings will not be reloaded",
+                            file);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stop() was called
+        }
+    }
+
+    private SecuritySettings read() throws IOException {
+        SecuritySettings initial = settingsHolder.initial();
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return initial;
+        }
+        return new SecuritySettings(
+                list(properties, "cors.allowed-origins", initial.allowedOrigins()),
+                duration(properties, "cors.max-age", initial.corsMaxAge()),
+                duration(properties, "jwt.access-token.ttl", initial.accessTokenTtl()),
+                list(properties, "security.routes.public", initial.publicRoutes()),
+                list(properties, "security.routes.docs", initial.docsRoutes()));
+    }
+
+    private static List<String> list(Properties properties, String name, List<String> defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Arrays.stream(StringUtils.commaDelimitedListToStringArray(value))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private static Duration duration(Properties properties, String name, Duration defaultValue) {
+        String value = properties.getProperty(name);
+        return value == null ? defaultValue : DurationStyle.detectAndParse(value.trim());
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("security.settings.reloads", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,31 @@
+package com.challenge.authentication.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the general purpose task executor.
+ *
+ * Spring Boot only creates its {@code applicationTaskExecutor} when the context has no other
+ * {@link java.util.concurrent.Executor}, so the password hashing executor would make Spring MVC run
+ * asynchronous requests, such as streamed responses, on an unbounded SimpleAsyncTaskExecutor. The
+ * executor is declared here instead, from Boot's builder, so it keeps the {@code spring.task.execution.*}
+ * properties and the bounds set there.
+ */
+@Configuration
+public class TaskExecutionConfig {
+
+    /**
+     * Creates the executor Spring MVC runs asynchronous requests on.
+     *
+     * @param builder the builder configured from the {@code spring.task.execution.*} properties
+     * @return the application task executor
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.jwt.RevokedTokenIndex;
+import com.challenge.authentication.jwt.RevokedTokenStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the backend of the revoked token ids.
+ *
+ * With {@code jwt.revocation.backend=local}, the default, each instance keeps the revocations it made
+ * in memory until the tokens expire. A shared, durable backend is plugged in by setting another value
+ * and defining a {@link RevokedTokenStore} bean for it.
+ */
+@Configuration
+public class TokenRevocationConfig {
+
+    /**
+     * Creates the in-memory store of revoked token ids.
+     *
+     * @param expectedTokens the number of revoked ids the Bloom filter is sized for
+     * @return the revoked token store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "jwt.revocation.backend", havingValue = "local", matchIfMissing = true)
+    public RevokedTokenStore revokedTokenIndex(@Value("${jwt.revocation.expected-tokens}") int expectedTokens) {
+        return new RevokedTokenIndex(expectedTokens);
+    }
+}
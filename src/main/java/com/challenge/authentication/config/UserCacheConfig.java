@@ -0,0 +1,36 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.service.InMemorySharedUserCache;
+import com.challenge.authentication.service.SharedUserCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the shared tier of the {@link com.challenge.authentication.service.UserCache}.
+ *
+ * With {@code users.cache.shared.backend=none}, the default, lookups are cached only in the near cache
+ * of each instance. {@code in-memory} adds an in-process shared tier, which stands in for a shared
+ * store in tests. A shared store is plugged in by setting another value and defining a
+ * {@link SharedUserCache} bean for it.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    /**
+     * Creates the in-process shared tier.
+     *
+     * @param maximumSize the maximum number of users kept at once
+     * @param ttl the time after which an entry expires once written
+     * @return the shared user cache
+     */
+    @Bean
+    @ConditionalOnProperty(name = "users.cache.shared.backend", havingValue = "in-memory")
+    public SharedUserCache inMemorySharedUserCache(@Value("${users.cache.shared.maximum-size}") long maximumSize,
+                                                   @Value("${users.cache.shared.ttl}") Duration ttl) {
+        return new InMemorySharedUserCache(maximumSize, ttl);
+    }
+}
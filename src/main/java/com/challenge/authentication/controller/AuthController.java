@@ -2,63 +2,243 @@ package com.challenge.authentication.controller;
 
 import com.challenge.authentication.dto.AuthRequestDTO;
 import com.challenge.authentication.dto.AuthResponseDTO;
+import com.challenge.authentication.dto.RefreshTokenRequestDTO;
 import com.challenge.authentication.dto.UserDTO;
+import com.challenge.authentication.entity.User;
 import com.challenge.authentication.exception.InvalidCredentialsException;
-import com.challenge.authentication.jwt.JwtUtil;
+import com.challenge.authentication.exception.InvalidTokenException;
+import com.challenge.authentication.exception.PayloadTooLargeException;
+import com.challenge.authentication.exception.ServiceOverloadedException;
+import com.challenge.authentication.exception.TooManyRequestsException;
+import com.challenge.authentication.exception.UserAlreadyExistsException;
 import com.challenge.authentication.mapper.UserMapper;
+import com.challenge.authentication.ratelimit.AuthRateLimiter;
+import com.challenge.authentication.service.AuthenticatedUser;
+import com.challenge.authentication.service.BulkRegistrationService;
+import com.challenge.authentication.service.TokenService;
 import com.challenge.authentication.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    // Stackless, so one instance serves every failed login
+    private static final InvalidCredentialsException INVALID_CREDENTIALS = new InvalidCredentialsException("Invalid credentials");
+
     @Autowired
     private UserService userService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private TokenService tokenService;
+
+    @Autowired
+    private BulkRegistrationService bulkRegistrationService;
 
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private Executor passwordHashingExecutor;
+
+    @Value("${password.hashing.retry-after}")
+    private Duration retryAfter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Registers a new user in the system.
      *
+     * The password is hashed on the password hashing executor, so the servlet thread is released
+     * while the request is processed. Attempts are rate limited per client address and per username
+     * before they are queued.
+     *
      * @param userDTO A UserDTO object containing the username and password of the user to be registered.
-     * @return A ResponseEntity containing a UserDTO object of the newly registered user.
+     * @param request the HTTP request, whose client address is rate limited.
+     * @return A future completing with a ResponseEntity containing a UserDTO object of the newly registered user.
+     * @throws TooManyRequestsException if the client or the username exceeded its registration rate limit.
+     * @throws ServiceOverloadedException if the password hashing executor is at capacity.
      */
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody UserDTO userDTO) {
-        return ResponseEntity.ok(UserMapper.toDTO(userService.saveUser(userDTO)));
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody UserDTO userDTO, HttpServletRequest request) {
+        authRateLimiter.checkRegistration(request.getRemoteAddr(), userDTO.getUserName());
+        return supplyOnHashingExecutor(() -> {
+            try {
+                final User user = userService.saveUser(userDTO);
+                countOutcome("auth.register", "success");
+                return ResponseEntity.ok(UserMapper.toDTO(user));
+            } catch (UserAlreadyExistsException e) {
+                countOutcome("auth.register", "conflict");
+                throw e;
+            }
+        });
     }
 
     /**
-     * Authenticates a user with the provided credentials and generates a JWT token and user ID.
+     * Registers the users of a JSON array of UserDTOs.
+     *
+     * The request body is read and the response written while the users are registered, in chunks,
+     * with the passwords of each chunk hashed in parallel and its users inserted in one batch. The
+     * response is a JSON array with one BulkRegistrationResultDTO per submitted user, in order, telling
+     * whether it was created, conflicted with an existing user, was invalid or was rejected. Only the
+     * users listed in {@code registration.bulk.allowed-users} can register users in bulk, which the
+     * security filter chain enforces. Requests are rate limited per client address, and the body is
+     * read in full before any user is registered, so a body over the row limit creates nobody.
+     *
+     * @param body the request body, a JSON array of UserDTO objects.
+     * @param request the HTTP request, whose client address is rate limited.
+     * @return A ResponseEntity streaming the JSON array of results.
+     * @throws TooManyRequestsException if the client exceeded its bulk registration rate limit.
+     * @throws PayloadTooLargeException if the body holds more than {@code registration.bulk.max-rows} users.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/register/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> registerUsers(InputStream body, HttpServletRequest request)
+            throws IOException {
+        authRateLimiter.checkBulkRegistration(request.getRemoteAddr());
+        BulkRegistrationService.BulkRequest users = bulkRegistrationService.read(body);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> bulkRegistrationService.register(users, out));
+    }
+
+    /**
+     * Authenticates a user with the provided credentials and generates an access token, a refresh token and user ID.
+     * The user is looked up and the password checked exactly once, by the authentication manager,
+     * on the password hashing executor, so the servlet thread is released while the request is processed.
+     *
+     * Attempts are rate limited per client address and per username before they are queued.
      *
      * @param request An AuthRequestDTO object containing the username and password of the user attempting to log in.
-     * @return A ResponseEntity containing an AuthResponseDTO with the JWT token and the user ID upon successful authentication.
-     * @throws Exception if authentication fails due to invalid credentials.
+     * @param httpRequest the HTTP request, whose client address is rate limited.
+     * @return A future completing with a ResponseEntity containing an AuthResponseDTO with the tokens and the user ID
+     * upon successful authentication, or failing with an InvalidCredentialsException if the credentials are invalid.
+     * @throws TooManyRequestsException if the client or the username exceeded its login rate limit.
+     * @throws ServiceOverloadedException if the password hashing executor is at capacity.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody AuthRequestDTO request) throws Exception {
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody AuthRequestDTO request, HttpServletRequest httpRequest) {
+        authRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.getUserName());
+        return supplyOnHashingExecutor(() -> {
+            final Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(request.getUserName(), request.getPassword()));
+            } catch (BadCredentialsException e) {
+                countOutcome("auth.login", "failure");
+                throw INVALID_CREDENTIALS;
+            }
+            countOutcome("auth.login", "success");
+
+            // The principal was loaded once by the authentication manager and already carries the user id
+            final AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            final AuthResponseDTO tokens = tokenService.issueTokens(user);
+            userService.upgradePasswordIfNeeded(user, request.getPassword());
+
+            return ResponseEntity.ok(tokens);
+        });
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     *
+     * The presented refresh token is revoked, so each refresh token can be used only once. No password
+     * is checked, so the request runs on the servlet thread without going through the password
+     * hashing executor.
+     *
+     * @param request A RefreshTokenRequestDTO object containing the refresh token.
+     * @return A ResponseEntity containing an AuthResponseDTO with the new tokens and the user ID.
+     * @throws InvalidTokenException if the refresh token is invalid, expired, revoked or was already used.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDTO> refreshToken(@RequestBody RefreshTokenRequestDTO request) {
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getUserName(), request.getPassword()));
-        } catch (BadCredentialsException e) {
-            throw new InvalidCredentialsException("Invalid credentials");
+            final AuthResponseDTO tokens = tokenService.refresh(request.getRefreshToken());
+            countOutcome("auth.refresh", "success");
+            return ResponseEntity.ok(tokens);
+        } catch (InvalidTokenException e) {
+            countOutcome("auth.refresh", "failure");
+            throw e;
         }
+    }
 
-        final UserDetails userDetails = userService.loadUserByUsername(request.getUserName());
-        final String jwt = jwtUtil.generateToken(userDetails.getUsername());
-        final Long userId = userService.findUserIdByUsername(request.getUserName());
+    /**
+     * Revokes the bearer token of the request and, if one is given, the refresh token and every
+     * token refreshed from it.
+     *
+     * @param authorization the Authorization header carrying the bearer token
+     * @param request An optional RefreshTokenRequestDTO object containing the refresh token to revoke.
+     * @return A ResponseEntity with NO CONTENT.
+     * @throws InvalidTokenException if the refresh token is invalid or belongs to another user.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader("Authorization") String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequestDTO request) {
+        tokenService.logout(authorization.substring("Bearer ".length()),
+                request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 
-        return ResponseEntity.ok(new AuthResponseDTO(jwt, userId));
+    /**
+     * Returns the user the bearer token of the request was issued to.
+     *
+     * The principal is resolved by the JWT filter, so this endpoint does not touch the database
+     * and exercises only the token authentication path.
+     *
+     * @param principal the authenticated user
+     * @return A ResponseEntity containing a UserDTO with the username of the authenticated user.
+     */
+    @GetMapping("/me")
+    public ResponseEntity<UserDTO> currentUser(@AuthenticationPrincipal UserDetails principal) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setUserName(principal.getUsername());
+        return ResponseEntity.ok(userDTO);
+    }
+
+    private void countOutcome(String name, String outcome) {
+        meterRegistry.counter(name, "outcome", outcome).increment();
     }
-}
 
+    /**
+     * Runs the given task on the password hashing executor, failing fast when its queue is full.
+     *
+     * @param task the task to run
+     * @return a future completing with the result of the task
+     * @throws ServiceOverloadedException if the executor rejects the task
+     */
+    private <T> CompletableFuture<T> supplyOnHashingExecutor(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("password.hashing.rejections").increment();
+            throw new ServiceOverloadedException("Too many concurrent authentication requests", retryAfter.toSeconds());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.challenge.authentication.controller;
+
+import com.challenge.authentication.jwt.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Publishes the public keys tokens are signed with, so other services can verify tokens locally.
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks.max-age}")
+    private Duration maxAge;
+
+    /**
+     * Returns the JSON Web Key Set of the token signing keys.
+     *
+     * The document only changes when the application restarts with other keys, so it may be cached
+     * publicly for {@code jwt.jwks.max-age}, and revalidated with its ETag afterwards.
+     *
+     * @param request the current request, used to answer conditional requests
+     * @return A ResponseEntity containing the JWK Set, or NOT MODIFIED if the client's copy is current.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(WebRequest request) {
+        String jwks = keyRing.jwks();
+        String eTag = "\"" + DigestUtils.md5DigestAsHex(jwks.getBytes(StandardCharsets.UTF_8)) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .eTag(eTag)
+                .body(jwks);
+    }
+}
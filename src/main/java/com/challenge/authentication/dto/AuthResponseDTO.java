@@ -3,11 +3,12 @@ package com.challenge.authentication.dto;
 /**
  * Data Transfer Object representing the authentication response.
  *
- * This class encapsulates the JWT token and the associated user ID
- * that are returned upon successful authentication.
+ * This class encapsulates the JWT access token, the refresh token and the associated user ID
+ * that are returned upon successful authentication or token refresh.
  */
 public class AuthResponseDTO {
     private String token;
+    private String refreshToken;
     private Long userId;
 
     public AuthResponseDTO(String token, Long userId) {
@@ -15,6 +16,12 @@ public class AuthResponseDTO {
         this.userId = userId;
     }
 
+    public AuthResponseDTO(String token, String refreshToken, Long userId) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.userId = userId;
+    }
+
     public String getToken() {
         return token;
     }
@@ -23,6 +30,14 @@ public class AuthResponseDTO {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -0,0 +1,56 @@
+package com.challenge.authentication.dto;
+
+/**
+ * Data Transfer Object reporting the outcome of one row of a bulk registration.
+ *
+ * Results are streamed back in the order of the submitted users.
+ */
+public class BulkRegistrationResultDTO {
+
+    /**
+     * The outcome of registering a single user.
+     */
+    public enum Status {
+        CREATED,
+        CONFLICT,
+        INVALID,
+        /** Not attempted because the service was at capacity; may be submitted again. */
+        REJECTED
+    }
+
+    private String userName;
+    private Status status;
+    private String message;
+
+    public BulkRegistrationResultDTO() {}
+
+    public BulkRegistrationResultDTO(String userName, Status status, String message) {
+        this.userName = userName;
+        this.status = status;
+        this.message = message;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,29 @@
+package com.challenge.authentication.dto;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Body of an error response, as an RFC 7807 problem detail ({@code application/problem+json}).
+ *
+ * The type is always {@code about:blank}, so the title is the reason phrase of the status.
+ *
+ * @param type a URI identifying the problem type
+ * @param title a short summary of the problem type
+ * @param status the HTTP status code of the response
+ * @param detail an explanation specific to this occurrence of the problem
+ */
+public record ProblemDTO(String type, String title, int status, String detail) {
+
+    private static final String ABOUT_BLANK = "about:blank";
+
+    /**
+     * Creates the problem detail for an error response with the given status.
+     *
+     * @param status the HTTP status of the response
+     * @param detail an explanation specific to this occurrence of the problem
+     * @return the problem detail
+     */
+    public static ProblemDTO of(HttpStatus status, String detail) {
+        return new ProblemDTO(ABOUT_BLANK, status.getReasonPhrase(), status.value(), detail);
+    }
+}
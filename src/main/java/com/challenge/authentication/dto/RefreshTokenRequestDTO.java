@@ -0,0 +1,28 @@
+package com.challenge.authentication.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Data Transfer Object for token refresh and logout requests.
+ *
+ * This class carries the refresh token issued at login or by the previous refresh.
+ */
+public class RefreshTokenRequestDTO {
+
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+
+    public RefreshTokenRequestDTO() {}
+
+    public RefreshTokenRequestDTO(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
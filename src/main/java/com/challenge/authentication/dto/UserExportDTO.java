@@ -0,0 +1,48 @@
+package com.challenge.authentication.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for one line of a user export.
+ *
+ * Unlike UserDTO, the password is the stored hash, so exports can be imported again without
+ * knowing or rehashing any password. Database ids are not exported; imported users get new ones.
+ */
+public class UserExportDTO {
+
+    private String userName;
+    private String password;
+    private BigDecimal balance;
+
+    public UserExportDTO() {}
+
+    public UserExportDTO(String userName, String password, BigDecimal balance) {
+        this.userName = userName;
+        this.password = password;
+        this.balance = balance;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
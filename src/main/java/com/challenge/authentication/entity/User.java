@@ -1,16 +1,30 @@
 package com.challenge.authentication.entity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
 import java.math.BigDecimal;
+import java.util.Objects;
 
 /**
  * Represents a user entity with id, username, password, and balance fields.
  * This class is mapped to a database table using JPA annotations.
+ * Usernames are unique, enforced by a unique index so registration can rely on a single insert.
+ * The unique index also answers id lookups by username, and a second index on (username, password)
+ * covers credential lookups, so neither has to read the table row.
+ * Changes to persisted users are announced through {@link UserEntityListener}.
  */
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_username", columnNames = "username"),
+        indexes = @Index(name = "idx_user_username_password", columnList = "username, password"))
+@EntityListeners(UserEntityListener.class)
 public class User {
 
     @Id
@@ -22,6 +36,13 @@ public class User {
 
     private BigDecimal balance = BigDecimal.ZERO;
 
+    /**
+     * The password hash as last read from or written to the database, used to tell
+     * credential changes apart from other updates.
+     */
+    @Transient
+    private String persistedPassword;
+
     public Long getId() {
         return id;
     }
@@ -53,4 +74,12 @@ public class User {
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
+
+    boolean isPasswordChanged() {
+        return !Objects.equals(persistedPassword, password);
+    }
+
+    void markPersisted() {
+        this.persistedPassword = password;
+    }
 }
@@ -0,0 +1,20 @@
+package com.challenge.authentication.entity;
+
+/**
+ * Application event published whenever a {@link User} row is created, updated or deleted.
+ *
+ * Components holding derived per-user state (cached authentications, cached lookups) listen to
+ * this event to drop entries that no longer reflect the database.
+ *
+ * @param username the username of the affected user
+ * @param type the kind of change that happened
+ */
+public record UserChangedEvent(String username, Type type) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        CREDENTIALS_CHANGED,
+        DELETED
+    }
+}
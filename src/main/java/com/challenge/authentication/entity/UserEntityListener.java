@@ -0,0 +1,45 @@
+package com.challenge.authentication.entity;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns {@link User} lifecycle callbacks into {@link UserChangedEvent}s.
+ *
+ * Instances are created by Hibernate through Spring's bean container, so dependencies are
+ * injected like in any other Spring-managed class.
+ */
+public class UserEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    public void onLoad(User user) {
+        user.markPersisted();
+    }
+
+    @PostPersist
+    public void onPersist(User user) {
+        user.markPersisted();
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), UserChangedEvent.Type.CREATED));
+    }
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        UserChangedEvent.Type type = user.isPasswordChanged()
+                ? UserChangedEvent.Type.CREDENTIALS_CHANGED
+                : UserChangedEvent.Type.UPDATED;
+        user.markPersisted();
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), type));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), UserChangedEvent.Type.DELETED));
+    }
+}
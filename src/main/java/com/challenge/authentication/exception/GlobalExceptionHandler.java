@@ -1,14 +1,20 @@
 package com.challenge.authentication.exception;
 
+import com.challenge.authentication.dto.ProblemDTO;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Turns exceptions into RFC 7807 problem detail responses ({@code application/problem+json}).
+ *
+ * Failed logins and duplicate registrations are the most frequent errors, so each response is built
+ * from a small immutable ProblemDTO rather than a map of boxed values.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -16,47 +22,100 @@ public class GlobalExceptionHandler {
      * Handles the InvalidCredentialsException and returns a structured error response.
      *
      * @param ex the InvalidCredentialsException that was thrown
-     * @return a ResponseEntity containing the error details with an HTTP status of UNAUTHORIZED
+     * @return a ResponseEntity containing the problem detail with an HTTP status of UNAUTHORIZED
      */
     @ExceptionHandler(InvalidCredentialsException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidCredentialsException(InvalidCredentialsException ex) {
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("timestamp", new Date());
-        errorDetails.put("status", HttpStatus.UNAUTHORIZED.value());
-        errorDetails.put("error", "Unauthorized");
-        errorDetails.put("message", ex.getMessage());
-        return new ResponseEntity<>(errorDetails, HttpStatus.UNAUTHORIZED);
+    public ResponseEntity<ProblemDTO> handleInvalidCredentialsException(InvalidCredentialsException ex) {
+        return problem(HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+
+    /**
+     * Handles the InvalidTokenException and returns a structured error response.
+     *
+     * @param ex the InvalidTokenException that was thrown
+     * @return a ResponseEntity containing the problem detail with an HTTP status of UNAUTHORIZED
+     */
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ProblemDTO> handleInvalidTokenException(InvalidTokenException ex) {
+        return problem(HttpStatus.UNAUTHORIZED, ex.getMessage());
     }
 
     /**
      * Handles the UserAlreadyExistsException and returns a structured error response.
      *
      * @param ex the UserAlreadyExistsException that was thrown
-     * @return a ResponseEntity containing the error details with an HTTP status of CONFLICT
+     * @return a ResponseEntity containing the problem detail with an HTTP status of CONFLICT
      */
     @ExceptionHandler(UserAlreadyExistsException.class)
-    public ResponseEntity<Map<String, Object>> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("timestamp", new Date());
-        errorDetails.put("status", HttpStatus.CONFLICT.value());
-        errorDetails.put("error", "Conflict");
-        errorDetails.put("message", ex.getMessage());
-        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    public ResponseEntity<ProblemDTO> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        return problem(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handles the ServiceOverloadedException and returns a structured error response.
+     *
+     * @param ex the ServiceOverloadedException that was thrown
+     * @return a ResponseEntity containing the problem detail and a Retry-After header with an HTTP status of SERVICE_UNAVAILABLE
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ProblemDTO> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDTO.of(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    /**
+     * Handles the TaskRejectedException thrown when the application task executor cannot take an
+     * asynchronous request, such as a streamed bulk registration, and returns a structured error response.
+     *
+     * @param ex the TaskRejectedException that was thrown
+     * @return a ResponseEntity containing the problem detail with an HTTP status of SERVICE_UNAVAILABLE
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ProblemDTO> handleTaskRejectedException(TaskRejectedException ex) {
+        return problem(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent requests");
+    }
+
+    /**
+     * Handles the PayloadTooLargeException and returns a structured error response.
+     *
+     * @param ex the PayloadTooLargeException that was thrown
+     * @return a ResponseEntity containing the problem detail with an HTTP status of PAYLOAD_TOO_LARGE
+     */
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ProblemDTO> handlePayloadTooLargeException(PayloadTooLargeException ex) {
+        return problem(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage());
+    }
+
+    /**
+     * Handles the TooManyRequestsException and returns a structured error response.
+     *
+     * @param ex the TooManyRequestsException that was thrown
+     * @return a ResponseEntity containing the problem detail and a Retry-After header with an HTTP status of TOO_MANY_REQUESTS
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ProblemDTO> handleTooManyRequestsException(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDTO.of(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()));
     }
 
     /**
      * Handles general exceptions and returns a structured error response.
      *
      * @param ex the exception that was thrown
-     * @return a ResponseEntity containing the error details with an HTTP status of INTERNAL_SERVER_ERROR
+     * @return a ResponseEntity containing the problem detail with an HTTP status of INTERNAL_SERVER_ERROR
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneralException(Exception ex) {
-        Map<String, Object> errorDetails = new HashMap<>();
-        errorDetails.put("timestamp", new Date());
-        errorDetails.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        errorDetails.put("error", "Internal Server Error");
-        errorDetails.put("message", ex.getMessage());
-        return new ResponseEntity<>(errorDetails, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<ProblemDTO> handleGeneralException(Exception ex) {
+        return problem(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+    }
+
+    private static ResponseEntity<ProblemDTO> problem(HttpStatus status, String detail) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDTO.of(status, detail));
     }
 }
@@ -6,10 +6,13 @@ package com.challenge.authentication.exception;
  * This exception extends RuntimeException and is typically used in authentication
  * contexts to indicate that the provided credentials do not match any existing user records.
  *
+ * Failed logins are routine, and during credential stuffing very frequent, so the exception
+ * skips filling in a stack trace; one instance can be thrown for every failed login.
+ *
  * @see RuntimeException
  */
 public class InvalidCredentialsException extends RuntimeException {
     public InvalidCredentialsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
\ No newline at end of file
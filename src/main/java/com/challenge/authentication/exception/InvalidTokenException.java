@@ -0,0 +1,17 @@
+package com.challenge.authentication.exception;
+
+/**
+ * Exception thrown when a refresh token is invalid, expired, revoked or has already been used.
+ *
+ * This exception extends RuntimeException and results in an UNAUTHORIZED response, after which the
+ * client has to log in again with its credentials.
+ *
+ * No stack trace is filled in, as the exception only becomes an UNAUTHORIZED response.
+ *
+ * @see RuntimeException
+ */
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message, null, false, false);
+    }
+}
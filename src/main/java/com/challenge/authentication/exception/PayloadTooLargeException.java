@@ -0,0 +1,16 @@
+package com.challenge.authentication.exception;
+
+/**
+ * Exception thrown when a request carries more than the service accepts in one request.
+ *
+ * This exception extends RuntimeException and is typically used to refuse a bulk registration over
+ * its row limit before any of its users is registered.
+ *
+ * @see RuntimeException
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.challenge.authentication.exception;
+
+/**
+ * Exception thrown when a request cannot be accepted because the service is at capacity.
+ *
+ * This exception extends RuntimeException and is typically used when a bounded work queue,
+ * such as the password hashing executor, is full. It carries the number of seconds after
+ * which the client may retry.
+ *
+ * No stack trace is filled in: the exception is thrown most often exactly when the service is
+ * short on CPU.
+ *
+ * @see RuntimeException
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
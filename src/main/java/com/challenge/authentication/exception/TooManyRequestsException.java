@@ -0,0 +1,26 @@
+package com.challenge.authentication.exception;
+
+/**
+ * Exception thrown when a client exceeds a rate limit.
+ *
+ * This exception extends RuntimeException and is typically used to reject login and registration
+ * attempts before any password is hashed. It carries the number of seconds after which the client
+ * may retry.
+ *
+ * No stack trace is filled in, so rejecting a request stays much cheaper than serving it.
+ *
+ * @see RuntimeException
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -6,10 +6,18 @@ package com.challenge.authentication.exception;
  * This exception extends RuntimeException and is typically used in user management
  * contexts to signal that a user with the specified username already exists in the system.
  *
+ * The exception is stackless: it only ever becomes a CONFLICT response, so its own stack trace would
+ * never be read. The integrity violation that revealed the duplicate is kept as its cause, with the
+ * stack trace and constraint name of the failed insert.
+ *
  * @see RuntimeException
  */
 public class UserAlreadyExistsException extends RuntimeException {
     public UserAlreadyExistsException(String message) {
-        super(message);
+        this(message, null);
+    }
+
+    public UserAlreadyExistsException(String message, Throwable cause) {
+        super(message, cause, false, false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.challenge.authentication.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Result of a successful bearer token authentication, as held by {@link JwtAuthenticationCache}.
+ *
+ * @param principal the user the token was issued to
+ * @param authorities the authorities granted to the principal
+ * @param issuedAt the issued-at claim of the token
+ * @param expiresAt the expiration of the token, after which the entry must no longer be used
+ * @param tokenId the {@code jti} claim of the token, checked against revoked tokens on every request
+ */
+public record CachedAuthentication(UserDetails principal,
+                                   Collection<? extends GrantedAuthority> authorities,
+                                   Instant issuedAt,
+                                   Instant expiresAt,
+                                   String tokenId) {
+
+    public String username() {
+        return principal.getUsername();
+    }
+}
@@ -0,0 +1,115 @@
+package com.challenge.authentication.jwt;
+
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Bounded, concurrent cache of verified bearer tokens.
+ *
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are never kept in memory,
+ * and hold the principal and authorities resolved for it. Each entry expires at the token's
+ * {@code exp} claim; when the cache is full, entries are evicted using Caffeine's W-TinyLFU policy.
+ * Hit, miss, size and eviction counters are published under the {@code jwt.authentication} cache name.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    public JwtAuthenticationCache(@Value("${jwt.cache.maximum-size}") long maximumSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.authentication");
+    }
+
+    /**
+     * Returns the cached authentication for the given token, resolving and caching it on a miss.
+     *
+     * @param token the raw bearer token
+     * @param loader resolves the token when it is not cached; may return null if the token is not valid
+     * @return the authentication for the token, or null if the loader rejected it
+     */
+    public CachedAuthentication get(String token, Function<String, CachedAuthentication> loader) {
+        String key = digest(token);
+        CachedAuthentication authentication = cache.getIfPresent(key);
+        if (authentication == null) {
+            // Resolved outside the cache's compute lock: the loader may block on the database, which
+            // would pin the carrier of a virtual thread while the map bin is locked
+            authentication = loader.apply(token);
+            if (authentication != null) {
+                cache.put(key, authentication);
+            }
+        }
+        return authentication;
+    }
+
+    /**
+     * Drops every cached authentication of the given user.
+     *
+     * @param username the username whose entries should be removed
+     */
+    public void evictUser(String username) {
+        cache.asMap().values().removeIf(authentication -> authentication.username().equals(username));
+    }
+
+    /**
+     * Invalidates the cached authentications of a user whose row was updated (e.g. a password change)
+     * or deleted, once the change has been committed.
+     *
+     * @param event the change that happened to the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            evictUser(event.username());
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.challenge.authentication.jwt;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The keys used to sign and verify tokens.
+ *
+ * In HMAC mode (HS256) a single shared secret both signs and verifies, and tokens carry no key id.
+ * In asymmetric mode (RS256, ES256 or EdDSA) tokens are signed with the private key of the signing
+ * key id and carry it in their {@code kid} header; they are verified with the public key of whatever
+ * id they carry, so tokens signed with a key that was rotated out keep working for as long as its
+ * public key stays in the ring. Every key is parsed once when the ring is built; verification only
+ * looks the pre-built key up by id.
+ *
+ * The public keys are also published as a JSON Web Key Set, so other services can verify tokens
+ * themselves. Secrets are never published.
+ */
+public class JwtKeyRing {
+
+    private final SecureDigestAlgorithm<Key, ?> algorithm;
+
+    private final String signingKeyId;
+
+    private final Key signingKey;
+
+    private final Map<String, Key> verificationKeys;
+
+    private final Key defaultVerificationKey;
+
+    private final String jwks;
+
+    @SuppressWarnings("unchecked")
+    private JwtKeyRing(SecureDigestAlgorithm<?, ?> algorithm, String signingKeyId, Key signingKey,
+                       Map<String, Key> verificationKeys, Key defaultVerificationKey, List<PublicJwk<?>> publicJwks) {
+        this.algorithm = (SecureDigestAlgorithm<Key, ?>) algorithm;
+        this.signingKeyId = signingKeyId;
+        this.signingKey = signingKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+        this.defaultVerificationKey = defaultVerificationKey;
+        this.jwks = publicJwks.stream().map(Jwks::json).collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    /**
+     * Creates a key ring that signs and verifies with a shared HS256 secret.
+     *
+     * @param base64Secret the Base64 encoded secret, at least 256 bits long
+     * @return the key ring
+     */
+    public static JwtKeyRing hmac(String base64Secret) {
+        Key secret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        return new JwtKeyRing(Jwts.SIG.HS256, null, secret, Map.of(), secret, List.of());
+    }
+
+    /**
+     * Creates a key ring from key pairs identified by their key id.
+     *
+     * @param algorithm the signature algorithm, e.g. RS256, ES256 or EdDSA
+     * @param keyPairs the key pairs by key id; the private key may be null for keys that are only
+     *                 kept to verify tokens signed before a rotation
+     * @param signingKeyId the id of the key pair that signs new tokens
+     * @return the key ring
+     * @throws IllegalArgumentException if the algorithm is not an asymmetric signature algorithm or the
+     *                                  signing key pair has no private key
+     */
+    public static JwtKeyRing of(String algorithm, Map<String, KeyPair> keyPairs, String signingKeyId) {
+        SignatureAlgorithm signatureAlgorithm = signatureAlgorithm(algorithm);
+        KeyPair signingKeyPair = keyPairs.get(signingKeyId);
+        if (signingKeyPair == null || signingKeyPair.getPrivate() == null) {
+            throw new IllegalArgumentException("No private key for signing key id " + signingKeyId);
+        }
+
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        List<PublicJwk<?>> publicJwks = new ArrayList<>();
+        keyPairs.forEach((keyId, keyPair) -> {
+            verificationKeys.put(keyId, keyPair.getPublic());
+            publicJwks.add(publicJwk(keyId, keyPair.getPublic(), keyId.equals(signingKeyId) ? algorithm : null));
+        });
+        return new JwtKeyRing(signatureAlgorithm, signingKeyId, signingKeyPair.getPrivate(),
+                verificationKeys, null, publicJwks);
+    }
+
+    /**
+     * Creates a key ring from the entries of a key store, using each alias as the key id.
+     *
+     * Private key entries can sign and verify; trusted certificate entries only verify, which is how
+     * a retired key is kept until the last token it signed has expired.
+     *
+     * @param algorithm the signature algorithm, e.g. RS256, ES256 or EdDSA
+     * @param keyStore the loaded key store
+     * @param password the password of the private key entries
+     * @param signingKeyId the alias of the entry that signs new tokens
+     * @return the key ring
+     * @throws GeneralSecurityException if an entry cannot be read
+     */
+    public static JwtKeyRing fromKeyStore(String algorithm, KeyStore keyStore, char[] password, String signingKeyId)
+            throws GeneralSecurityException {
+        Map<String, KeyPair> keyPairs = new LinkedHashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            PublicKey publicKey = keyStore.getCertificate(alias).getPublicKey();
+            PrivateKey privateKey = keyStore.isKeyEntry(alias) ? (PrivateKey) keyStore.getKey(alias, password) : null;
+            keyPairs.put(alias, new KeyPair(publicKey, privateKey));
+        }
+        return of(algorithm, keyPairs, signingKeyId);
+    }
+
+    /**
+     * Creates a key ring with a single key pair generated in memory, identified by its JWK thumbprint.
+     *
+     * The key pair is lost on restart, which invalidates every token, and differs between instances;
+     * this is only meant for development, tests and benchmarks.
+     *
+     * @param algorithm the signature algorithm, e.g. RS256, ES256 or EdDSA
+     * @return the key ring
+     */
+    public static JwtKeyRing generate(String algorithm) {
+        KeyPair keyPair = signatureAlgorithm(algorithm).keyPair().build();
+        String keyId = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+        return of(algorithm, Map.of(keyId, keyPair), keyId);
+    }
+
+    /**
+     * Returns the algorithm new tokens are signed with.
+     *
+     * @return the signature algorithm
+     */
+    public SecureDigestAlgorithm<Key, ?> algorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the id of the key new tokens are signed with.
+     *
+     * @return the key id, or null in HMAC mode
+     */
+    public String signingKeyId() {
+        return signingKeyId;
+    }
+
+    /**
+     * Returns the key new tokens are signed with.
+     *
+     * @return the private key, or the secret in HMAC mode
+     */
+    public Key signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * Returns a locator resolving the verification key of a token from its {@code kid} header.
+     *
+     * @return the key locator
+     */
+    public Locator<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String keyId = header.getKeyId();
+                Key key = keyId == null ? defaultVerificationKey : verificationKeys.get(keyId);
+                if (key == null) {
+                    throw new SignatureException("Unknown signing key id: " + keyId);
+                }
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Returns the public keys as a serialized JSON Web Key Set.
+     *
+     * @return the JWK Set document, with an empty key list in HMAC mode
+     */
+    public String jwks() {
+        return jwks;
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(String algorithm) {
+        if (Jwts.SIG.get().get(algorithm) instanceof SignatureAlgorithm signatureAlgorithm) {
+            return signatureAlgorithm;
+        }
+        throw new IllegalArgumentException("Not an asymmetric signature algorithm: " + algorithm);
+    }
+
+    private static PublicJwk<?> publicJwk(String keyId, PublicKey publicKey, String algorithm) {
+        var builder = Jwks.builder().key(publicKey).id(keyId).publicKeyUse("sig");
+        if (algorithm != null) {
+            builder.algorithm(algorithm);
+        }
+        return builder.build();
+    }
+}
@@ -1,19 +1,32 @@
 package com.challenge.authentication.jwt;
 
+import com.challenge.authentication.config.RouteTable;
 import com.challenge.authentication.service.UserService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
@@ -24,8 +37,84 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private RouteTable routeTable;
+
+    /**
+     * When enabled, the principal is rebuilt from the verified claims instead of being loaded from
+     * the database when a token is first seen.
+     */
+    @Value("${jwt.stateless}")
+    private boolean stateless;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer verificationTimer;
+
+    private final Map<RejectionReason, Counter> rejectionCounters = new EnumMap<>(RejectionReason.class);
+
+    /**
+     * Reasons for which a bearer token is rejected, published as the {@code reason} tag of {@code jwt.rejections}.
+     */
+    private enum RejectionReason {
+        EXPIRED,
+        SIGNATURE,
+        MALFORMED,
+        MISMATCH,
+        TYPE,
+        REVOKED,
+        UNKNOWN_USER
+    }
+
+    /**
+     * Registers the filter's meters: {@code jwt.verification} times token parsing and signature
+     * verification on cache misses, and {@code jwt.rejections} counts rejected tokens by reason.
+     * Cache hits and misses are published by {@link JwtAuthenticationCache}.
+     */
+    @Override
+    protected void initFilterBean() {
+        verificationTimer = Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying bearer tokens")
+                .register(meterRegistry);
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejectionCounters.put(reason, Counter.builder("jwt.rejections")
+                    .description("Bearer tokens rejected by the JWT filter")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
+
     /**
-     * Filters incoming HTTP requests to enforce JWT-based security for non-authentication endpoints.
+     * Skips requests that never need a bearer token: CORS preflight requests, and routes the
+     * {@link RouteTable} classifies as public or documentation.
+     *
+     * @param request the HTTP request
+     * @return true if the request does not go through the filter
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return CorsUtils.isPreFlightRequest(request) || routeTable.classify(request) != RouteTable.Access.AUTHENTICATED;
+    }
+
+    /**
+     * Filters incoming HTTP requests to enforce JWT-based security for authenticated routes.
+     *
+     * The bearer token is parsed and verified once; the resulting claims are used for every
+     * subsequent check. Successful authentications are kept in {@link JwtAuthenticationCache}
+     * until the token expires, so repeated requests with the same token skip both the signature
+     * verification and the user lookup. Whether the token itself or the tokens of its user were
+     * revoked is still checked on every request, so a user deleted through another instance is
+     * refused within {@code jwt.revocation.check-ttl} in both modes. In stateless mode the principal
+     * comes from the token claims. Refresh tokens are not accepted as bearer tokens.
+     * Requests carrying an invalid, expired or revoked token, or a token of a user that no longer
+     * exists, continue unauthenticated.
      *
      * @param request the HTTP request to be processed
      * @param response the HTTP response to be processed
@@ -37,28 +126,37 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String path = request.getRequestURI();
-        if (path.equals("/api/auth/register") || path.equals("/api/auth/login")) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            CachedAuthentication authentication = null;
+            try {
+                authentication = authenticationCache.get(authorizationHeader.substring(7), this::authenticate);
+            } catch (ExpiredJwtException e) {
+                reject(RejectionReason.EXPIRED, e.getMessage());
+            } catch (SignatureException e) {
+                reject(RejectionReason.SIGNATURE, e.getMessage());
+            } catch (UsernameNotFoundException e) {
+                reject(RejectionReason.UNKNOWN_USER, e.getMessage());
+            } catch (JwtException | IllegalArgumentException e) {
+                reject(RejectionReason.MALFORMED, e.getMessage());
+            }
 
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-        }
+            if (authentication != null && revocationService.isTokenRevoked(authentication.tokenId())) {
+                reject(RejectionReason.REVOKED, "token " + authentication.tokenId() + " was revoked");
+                authentication = null;
+            }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
+            if (authentication != null
+                    && revocationService.isRevoked(authentication.username(), authentication.issuedAt())) {
+                reject(RejectionReason.REVOKED, "token of user " + authentication.username() + " was revoked");
+                authentication = null;
+            }
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (authentication != null) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        authentication.principal(), null, authentication.authorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
@@ -67,4 +165,33 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Verifies the given token and resolves the user it was issued to.
+     *
+     * @param token the raw bearer token
+     * @return the resolved authentication, or null if the token does not belong to the user
+     */
+    private CachedAuthentication authenticate(String token) {
+        VerifiedClaims claims = verificationTimer.record(() -> jwtUtil.parseToken(token));
+        if (claims.type() != TokenType.ACCESS) {
+            reject(RejectionReason.TYPE, claims.type() + " token used as a bearer token");
+            return null;
+        }
+        UserDetails userDetails = stateless && claims.userId() != null
+                ? claims.toPrincipal()
+                : userService.loadUserByUsername(claims.subject());
+        if (!jwtUtil.isValidFor(claims, userDetails)) {
+            reject(RejectionReason.MISMATCH, "token subject does not match user " + userDetails.getUsername());
+            return null;
+        }
+        return new CachedAuthentication(userDetails, userDetails.getAuthorities(), claims.issuedAt(), claims.expiration(),
+                claims.id());
+    }
+
+    private void reject(RejectionReason reason, String message) {
+        rejectionCounters.get(reason).increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rejected JWT (" + reason + "): " + message);
+        }
+    }
 }
@@ -1,38 +1,155 @@
 package com.challenge.authentication.jwt;
 
+import com.challenge.authentication.config.SecuritySettingsHolder;
+import com.challenge.authentication.service.AuthenticatedUser;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Utility class for handling JWT (JSON Web Token) operations such as generating tokens,
  * extracting information from tokens, and validating tokens.
+ *
+ * Tokens are signed and verified with the keys of the {@link JwtKeyRing}, which are parsed once
+ * when it is built, and the parser is built once, so every operation reuses the same immutable,
+ * thread-safe instances.
+ *
+ * Every token carries a unique id ({@code jti}) so it can be revoked on its own, and a
+ * {@code token_use} claim telling short-lived access tokens from long-lived refresh tokens.
  */
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    static final Duration DEFAULT_ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+
+    static final Duration DEFAULT_REFRESH_TOKEN_TTL = Duration.ofDays(14);
+
+    private final JwtKeyRing keyRing;
+
+    private final JwtParser parser;
+
+    private final Supplier<Duration> accessTokenTtl;
+
+    private final Duration refreshTokenTtl;
+
+    public JwtUtil(JwtKeyRing keyRing) {
+        this(keyRing, () -> DEFAULT_ACCESS_TOKEN_TTL, DEFAULT_REFRESH_TOKEN_TTL);
+    }
+
+    /**
+     * Creates the token utility of the application. The access token lifetime is read from the
+     * current security settings for every token, so a change applies to the next token issued.
+     *
+     * @param keyRing the keys signing and verifying tokens
+     * @param settingsHolder the holder of the security settings
+     * @param refreshTokenTtl how long refresh tokens are valid
+     */
+    @Autowired
+    public JwtUtil(JwtKeyRing keyRing,
+                   SecuritySettingsHolder settingsHolder,
+                   @Value("${jwt.refresh-token.ttl}") Duration refreshTokenTtl) {
+        this(keyRing, () -> settingsHolder.current().accessTokenTtl(), refreshTokenTtl);
+    }
+
+    private JwtUtil(JwtKeyRing keyRing, Supplier<Duration> accessTokenTtl, Duration refreshTokenTtl) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser().keyLocator(keyRing.keyLocator()).build();
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
 
     /**
-     * Generates a JWT token for the specified username.
+     * Generates an access token for the specified username.
      *
      * @param username the username for which to generate the JWT token
      * @return a JWT token as a String
      */
     public String generateToken(String username) {
-        return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 2)) // Token valid for 2 hours
-                .signWith(SignatureAlgorithm.HS256, secretKey)
+        return builder(TokenType.ACCESS, UUID.randomUUID().toString(), accessTokenTtl.get())
+                .subject(username)
                 .compact();
     }
 
+    /**
+     * Generates an access token for the specified user, embedding the user id and authorities as claims
+     * so the user can be authenticated from the verified token alone.
+     *
+     * @param user the authenticated user for which to generate the JWT token
+     * @return a JWT token as a String, valid for {@code jwt.access-token.ttl}
+     */
+    public String generateToken(AuthenticatedUser user) {
+        return userToken(user, TokenType.ACCESS, UUID.randomUUID().toString(), accessTokenTtl.get())
+                .compact();
+    }
+
+    /**
+     * Generates a refresh token for the specified user, which can be exchanged once for a new
+     * access token and refresh token without the user's password.
+     *
+     * @param user the authenticated user for which to generate the refresh token
+     * @param family the family of the refresh token being rotated, or null to start a new family
+     * @return a JWT token as a String, valid for {@code jwt.refresh-token.ttl}
+     */
+    public String generateRefreshToken(AuthenticatedUser user, String family) {
+        // A new family gets its own id, never the jti of a token: rotating a token revokes its jti,
+        // which must not revoke the family along with it
+        return userToken(user, TokenType.REFRESH, UUID.randomUUID().toString(), refreshTokenTtl)
+                .claim(VerifiedClaims.FAMILY, family != null ? family : UUID.randomUUID().toString())
+                .compact();
+    }
+
+    /**
+     * Returns how long refresh tokens are valid, which is also the longest any token is valid.
+     *
+     * @return the refresh token lifetime
+     */
+    public Duration refreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    private JwtBuilder userToken(AuthenticatedUser user, TokenType type, String tokenId, Duration ttl) {
+        return builder(type, tokenId, ttl)
+                .subject(user.getUsername())
+                .claim(VerifiedClaims.USER_ID, user.getId())
+                .claim(VerifiedClaims.AUTHORITIES,
+                        user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    private JwtBuilder builder(TokenType type, String tokenId, Duration ttl) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(keyRing.signingKeyId()).and()
+                .id(tokenId)
+                .claim(VerifiedClaims.TOKEN_TYPE, type.claimValue())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(ttl)))
+                .signWith(keyRing.signingKey(), keyRing.algorithm());
+    }
+
+    /**
+     * Parses the given JWT token and verifies its signature and expiration exactly once.
+     *
+     * @param token the JWT token to be parsed
+     * @return the verified claims of the token
+     * @throws JwtException if the token is malformed, has an invalid signature or has expired
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public VerifiedClaims parseToken(String token) {
+        return VerifiedClaims.from(parser.parseSignedClaims(token).getPayload());
+    }
+
     /**
      * Extracts the username from the given JWT token.
      *
@@ -40,7 +157,7 @@ public class JwtUtil {
      * @return the username extracted from the JWT token
      */
     public String extractUsername(String token) {
-        return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody().getSubject();
+        return parseToken(token).subject();
     }
 
     /**
@@ -51,18 +168,17 @@ public class JwtUtil {
      * @return true if the token is valid and belongs to the user, false otherwise
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isValidFor(parseToken(token), userDetails);
     }
 
     /**
-     * Checks if the given JWT token has expired.
+     * Validates already verified claims against user details.
      *
-     * @param token the JWT token to be checked
-     * @return true if the token has expired, false otherwise
+     * @param claims the verified claims of a JWT token
+     * @param userDetails the user details to validate the claims against
+     * @return true if the claims belong to the user and have not expired, false otherwise
      */
-    private Boolean isTokenExpired(String token) {
-        return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody().getExpiration().before(new Date());
+    public boolean isValidFor(VerifiedClaims claims, UserDetails userDetails) {
+        return claims.subject().equals(userDetails.getUsername()) && !claims.isExpiredAt(Instant.now());
     }
 }
-
@@ -0,0 +1,167 @@
+package com.challenge.authentication.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory {@link RevokedTokenStore}, the index of the revoked token ids of one instance.
+ *
+ * Lookups go through a Bloom filter first, so the common case of a token that was never revoked
+ * costs a few hashes and bit reads and no map lookup; only ids the filter may contain are checked
+ * against the exact set. Entries of the exact set expire with the token they revoke. Expired ids
+ * stay set in the Bloom filter, so once as many ids were added as it was sized for, it is rebuilt
+ * from the live entries. Revocations are rare and serialized; lookups are lock-free.
+ */
+public class RevokedTokenIndex implements RevokedTokenStore {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Cache<String, Instant> revoked;
+
+    private final int expectedTokens;
+
+    private volatile BloomFilter filter;
+
+    private int insertions;
+
+    public RevokedTokenIndex(int expectedTokens) {
+        this.revoked = Caffeine.newBuilder()
+                .expireAfter(new RevocationExpiry())
+                .build();
+        this.expectedTokens = expectedTokens;
+        this.filter = new BloomFilter(expectedTokens);
+    }
+
+    /**
+     * Checks if the token with the given id has been revoked.
+     *
+     * @param tokenId the {@code jti} claim of the token
+     * @return true if the token was revoked and has not expired yet, false otherwise
+     */
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.getIfPresent(tokenId) != null;
+    }
+
+    /**
+     * Revokes the token with the given id until it expires.
+     *
+     * @param tokenId the {@code jti} claim of the token
+     * @param expiresAt the expiration of the token, after which it no longer needs to be remembered
+     * @return true if the token was revoked by this call, false if it had already been revoked
+     */
+    @Override
+    public synchronized boolean revoke(String tokenId, Instant expiresAt) {
+        if (revoked.asMap().putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        if (++insertions > filter.capacity) {
+            rebuild();
+        } else {
+            filter.put(tokenId);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of revoked tokens that have not expired yet.
+     *
+     * @return the approximate number of entries in the exact set
+     */
+    @Override
+    public long size() {
+        return revoked.estimatedSize();
+    }
+
+    private void rebuild() {
+        revoked.cleanUp();
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, (int) revoked.estimatedSize() * 2));
+        revoked.asMap().keySet().forEach(rebuilt::put);
+        insertions = (int) revoked.estimatedSize();
+        filter = rebuilt;
+    }
+
+    private static final class RevocationExpiry implements Expiry<String, Instant> {
+
+        @Override
+        public long expireAfterCreate(String key, Instant expiresAt, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Instant expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Instant expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings, using double hashing of a 64-bit FNV-1a hash of their chars.
+     */
+    private static final class BloomFilter {
+
+        private final int capacity;
+
+        private final AtomicLongArray words;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        BloomFilter(int capacity) {
+            this.capacity = Math.max(1, capacity);
+            long bits = (long) Math.ceil(-this.capacity * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                long mask = 1L << bit;
+                words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash1 = hash(key);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            return hash ^ (hash >>> 33);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.challenge.authentication.jwt;
+
+import java.time.Instant;
+
+/**
+ * Storage backend of revoked token ids ({@code jti} claims), including the ids of revoked refresh
+ * token families.
+ *
+ * {@link RevokedTokenIndex} keeps them in the memory of each instance: they are lost on a restart and
+ * not seen by other instances, so a revoked refresh token is accepted again there for the rest of its
+ * {@code jwt.refresh-token.ttl}. A backend holding them in a shared, durable store can replace it by
+ * registering its own bean with {@code jwt.revocation.backend} set to anything but {@code local}.
+ */
+public interface RevokedTokenStore {
+
+    /**
+     * Revokes the token with the given id until it expires.
+     *
+     * @param tokenId the {@code jti} claim of the token, or the id of a refresh token family
+     * @param expiresAt the expiration of the token, after which it no longer needs to be remembered
+     * @return true if the token was revoked by this call, false if it had already been revoked
+     */
+    boolean revoke(String tokenId, Instant expiresAt);
+
+    /**
+     * Checks if the token with the given id has been revoked.
+     *
+     * @param tokenId the {@code jti} claim of the token, or the id of a refresh token family
+     * @return true if the token was revoked and has not expired yet, false otherwise
+     */
+    boolean isRevoked(String tokenId);
+
+    /**
+     * Returns the number of revoked tokens that have not expired yet.
+     *
+     * @return the approximate number of revoked tokens
+     */
+    long size();
+}
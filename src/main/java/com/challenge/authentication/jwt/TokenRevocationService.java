@@ -0,0 +1,129 @@
+package com.challenge.authentication.jwt;
+
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Decides whether a verified token has been revoked, without going to the database on every request.
+ *
+ * Three checks are combined:
+ * - Individual tokens, revoked by id on logout or when a refresh token is rotated, are rejected.
+ *   They are kept in a {@link RevokedTokenStore} until they expire; the default, in-memory
+ *   {@link RevokedTokenIndex} answers for tokens that were never revoked with a Bloom filter lookup,
+ *   but forgets revocations on a restart and does not share them with other instances.
+ * - Tokens issued to a user before that user's password changed, or before the user was deleted,
+ *   are rejected. Those instants are recorded locally from {@link UserChangedEvent}s and kept for
+ *   as long as a token can live, for at most {@code jwt.cache.maximum-size} users at once.
+ * - Whether the user still exists is looked up at most once per {@code jwt.revocation.check-ttl}
+ *   per username, which also catches users deleted through another instance.
+ */
+@Component
+public class TokenRevocationService {
+
+    private final Cache<String, Instant> revokedBefore;
+
+    private final Cache<String, Boolean> activeUsers;
+
+    private final RevokedTokenStore revokedTokens;
+
+    private final UserRepository userRepository;
+
+    public TokenRevocationService(UserRepository userRepository,
+                                  @Value("${jwt.revocation.check-ttl}") Duration checkTtl,
+                                  @Value("${jwt.cache.maximum-size}") long maximumSize,
+                                  @Value("${jwt.refresh-token.ttl}") Duration maxTokenLifetime,
+                                  RevokedTokenStore revokedTokens,
+                                  MeterRegistry meterRegistry) {
+        this.revokedBefore = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(maxTokenLifetime)
+                .build();
+        this.revokedTokens = revokedTokens;
+        this.activeUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(checkTtl)
+                .recordStats()
+                .build();
+        this.userRepository = userRepository;
+        CaffeineCacheMetrics.monitor(meterRegistry, activeUsers, "jwt.revocation");
+        Gauge.builder("jwt.revoked.tokens", revokedTokens, RevokedTokenStore::size)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param tokenId the {@code jti} claim of the token
+     * @param expiresAt the expiration of the token
+     * @return true if the token was revoked by this call, false if it had already been revoked
+     */
+    public boolean revokeToken(String tokenId, Instant expiresAt) {
+        return revokedTokens.revoke(tokenId, expiresAt);
+    }
+
+    /**
+     * Checks if a single token has been revoked.
+     *
+     * @param tokenId the {@code jti} claim of the token, may be null for tokens issued without one
+     * @return true if the token must no longer be accepted, false otherwise
+     */
+    public boolean isTokenRevoked(String tokenId) {
+        return tokenId != null && revokedTokens.isRevoked(tokenId);
+    }
+
+    /**
+     * Checks if a token issued to the given user at the given instant has been revoked.
+     *
+     * @param username the subject of the token
+     * @param issuedAt the issued-at claim of the token, may be null
+     * @return true if the token must no longer be accepted, false otherwise
+     */
+    public boolean isRevoked(String username, Instant issuedAt) {
+        Instant revokedAt = revokedBefore.getIfPresent(username);
+        // iat only has second precision, so tokens issued within the second of the change are kept
+        if (revokedAt != null && (issuedAt == null || issuedAt.isBefore(revokedAt.truncatedTo(ChronoUnit.SECONDS)))) {
+            return true;
+        }
+        Boolean active = activeUsers.getIfPresent(username);
+        if (active == null) {
+            // Looked up outside the cache's compute lock, so a virtual thread blocked on the
+            // database does not pin its carrier
+            active = userRepository.existsByUsername(username);
+            activeUsers.put(username, active);
+        }
+        return !active;
+    }
+
+    /**
+     * Revokes the tokens issued to a user before their password changed or before they were deleted,
+     * once the change has been committed.
+     *
+     * @param event the change that happened to the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        switch (event.type()) {
+            case CREDENTIALS_CHANGED -> revokedBefore.put(event.username(), Instant.now());
+            case DELETED -> {
+                revokedBefore.put(event.username(), Instant.now());
+                activeUsers.put(event.username(), false);
+            }
+            case CREATED -> activeUsers.invalidate(event.username());
+            default -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.challenge.authentication.jwt;
+
+import java.util.Locale;
+
+/**
+ * Kinds of tokens issued by {@link JwtUtil}, carried in the {@code token_use} claim.
+ */
+public enum TokenType {
+
+    /**
+     * Short-lived token sent as a bearer token to authenticate requests.
+     */
+    ACCESS,
+
+    /**
+     * Long-lived token only accepted by the refresh endpoint, exchanged for a new pair of tokens.
+     */
+    REFRESH;
+
+    String claimValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static TokenType fromClaim(String value) {
+        // Tokens issued before refresh tokens existed carry no type and were all access tokens
+        return REFRESH.claimValue().equals(value) ? REFRESH : ACCESS;
+    }
+}
@@ -0,0 +1,71 @@
+package com.challenge.authentication.jwt;
+
+import com.challenge.authentication.service.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of the claims of a JWT whose signature has already been verified.
+ *
+ * Instances are produced by {@link JwtUtil#parseToken(String)} after a single parse of the token,
+ * so callers can run every check they need without parsing or verifying the token again.
+ *
+ * @param subject the username the token was issued to
+ * @param expiration the instant after which the token is no longer valid
+ * @param issuedAt the instant at which the token was issued
+ * @param userId the database id of the user, or null for tokens issued without it
+ * @param authorities the authorities granted to the user when the token was issued
+ * @param id the unique id of the token ({@code jti}), or null for tokens issued without it
+ * @param type whether the token is an access or a refresh token
+ * @param family the id of the first refresh token of the rotation chain a refresh token belongs to,
+ *               or null for access tokens
+ */
+public record VerifiedClaims(String subject, Instant expiration, Instant issuedAt,
+                             Long userId, List<String> authorities,
+                             String id, TokenType type, String family) {
+
+    static final String USER_ID = "uid";
+
+    static final String AUTHORITIES = "roles";
+
+    static final String TOKEN_TYPE = "token_use";
+
+    static final String FAMILY = "fam";
+
+    static VerifiedClaims from(Claims claims) {
+        Number userId = claims.get(USER_ID, Number.class);
+        List<?> authorities = claims.get(AUTHORITIES, List.class);
+        return new VerifiedClaims(
+                claims.getSubject(),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                userId != null ? userId.longValue() : null,
+                authorities != null ? authorities.stream().map(String::valueOf).toList() : List.of(),
+                claims.getId(),
+                TokenType.fromClaim(claims.get(TOKEN_TYPE, String.class)),
+                claims.get(FAMILY, String.class));
+    }
+
+    /**
+     * Checks if the token has expired at the given instant.
+     *
+     * @param now the instant to compare the expiration against
+     * @return true if the token has an expiration and it is before {@code now}, false otherwise
+     */
+    public boolean isExpiredAt(Instant now) {
+        return expiration != null && expiration.isBefore(now);
+    }
+
+    /**
+     * Rebuilds the principal the token was issued to from its claims, without a database lookup.
+     *
+     * @return the principal carrying the user id and authorities of the claims
+     */
+    public AuthenticatedUser toPrincipal() {
+        return new AuthenticatedUser(userId, subject, "",
+                authorities.stream().map(SimpleGrantedAuthority::new).toList());
+    }
+}
@@ -0,0 +1,98 @@
+package com.challenge.authentication.migration;
+
+import com.challenge.authentication.repository.UserConstraints;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Migration 2: creates the unique constraint and the index of the {@code user} table if they are missing.
+ *
+ * Databases created by Hibernate are baselined at version 1 without running V1, so nothing checks
+ * that they have {@code uk_user_username} and {@code idx_user_username_password}. Registration relies
+ * on the constraint, by name, to reject duplicates, and logins rely on the index. This migration
+ * looks both up in the database metadata and creates the missing ones. If the table already holds
+ * duplicate usernames, creating the constraint fails and so does the migration; they have to be
+ * resolved by hand first.
+ *
+ * MySQL cannot create an index only if it does not exist, so this is a Java migration rather than an
+ * SQL one. It is a bean, which Spring Boot hands to Flyway without classpath scanning, so it does not
+ * need Flyway's {@code V2__...} class naming.
+ */
+@Component
+public class EnsureUserIndexesMigration implements JavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnsureUserIndexesMigration.class);
+
+    private static final String USERNAME_PASSWORD_INDEX = "idx_user_username_password";
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("2");
+    }
+
+    @Override
+    public String getDescription() {
+        return "ensure user indexes";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        Set<String> indexes = indexNames(connection);
+        try (Statement statement = connection.createStatement()) {
+            if (!hasIndex(indexes, UserConstraints.USERNAME_UNIQUE)) {
+                logger.info("Adding the missing unique constraint {}", UserConstraints.USERNAME_UNIQUE);
+                statement.execute("alter table user add constraint " + UserConstraints.USERNAME_UNIQUE
+                        + " unique (username)");
+            }
+            if (!hasIndex(indexes, USERNAME_PASSWORD_INDEX)) {
+                logger.info("Adding the missing index {}", USERNAME_PASSWORD_INDEX);
+                statement.execute("create index " + USERNAME_PASSWORD_INDEX + " on user (username, password)");
+            }
+        }
+    }
+
+    private static Set<String> indexNames(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? "USER" : "user";
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexInfo = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                false, true)) {
+            while (indexInfo.next()) {
+                String name = indexInfo.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+
+    // H2 names the index backing a constraint after it, e.g. UK_USER_USERNAME_INDEX_2
+    private static boolean hasIndex(Set<String> indexes, String name) {
+        return indexes.stream().anyMatch(index -> index.equals(name) || index.startsWith(name + "_index"));
+    }
+}
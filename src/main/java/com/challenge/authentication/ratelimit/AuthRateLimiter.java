@@ -0,0 +1,115 @@
+package com.challenge.authentication.ratelimit;
+
+import com.challenge.authentication.exception.TooManyRequestsException;
+import com.challenge.authentication.repository.UserConstraints;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Applies the rate limits of the login and registration endpoints.
+ *
+ * Each endpoint has one bucket per client address, against password spraying and CPU exhaustion
+ * from a single source, and one bucket per username, against guessing the password of one account
+ * from many addresses. Both are checked before the request is queued for password hashing, so a
+ * rejected attempt costs neither a database query nor a hash. Bulk registrations, which carry no
+ * single username, only have a bucket per client address. Rejections are counted under
+ * {@code auth.rate_limited}.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimiter rateLimiter;
+
+    private final boolean enabled;
+
+    private final RateLimit loginPerClient;
+
+    private final RateLimit loginPerUsername;
+
+    private final RateLimit registerPerClient;
+
+    private final RateLimit registerPerUsername;
+
+    private final RateLimit bulkRegisterPerClient;
+
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(RateLimiter rateLimiter,
+                           @Value("${rate-limit.enabled}") boolean enabled,
+                           @Value("${rate-limit.login.per-client.capacity}") int loginPerClientCapacity,
+                           @Value("${rate-limit.login.per-client.period}") Duration loginPerClientPeriod,
+                           @Value("${rate-limit.login.per-username.capacity}") int loginPerUsernameCapacity,
+                           @Value("${rate-limit.login.per-username.period}") Duration loginPerUsernamePeriod,
+                           @Value("${rate-limit.register.per-client.capacity}") int registerPerClientCapacity,
+                           @Value("${rate-limit.register.per-client.period}") Duration registerPerClientPeriod,
+                           @Value("${rate-limit.register.per-username.capacity}") int registerPerUsernameCapacity,
+                           @Value("${rate-limit.register.per-username.period}") Duration registerPerUsernamePeriod,
+                           @Value("${rate-limit.register-bulk.per-client.capacity}") int bulkRegisterPerClientCapacity,
+                           @Value("${rate-limit.register-bulk.per-client.period}") Duration bulkRegisterPerClientPeriod,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.loginPerClient = new RateLimit(loginPerClientCapacity, loginPerClientPeriod);
+        this.loginPerUsername = new RateLimit(loginPerUsernameCapacity, loginPerUsernamePeriod);
+        this.registerPerClient = new RateLimit(registerPerClientCapacity, registerPerClientPeriod);
+        this.registerPerUsername = new RateLimit(registerPerUsernameCapacity, registerPerUsernamePeriod);
+        this.bulkRegisterPerClient = new RateLimit(bulkRegisterPerClientCapacity, bulkRegisterPerClientPeriod);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Takes a login attempt from the buckets of the client and of the username.
+     *
+     * @param client the address of the client
+     * @param username the username the client tries to log in as, may be null
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void checkLogin(String client, String username) {
+        check("login", client, loginPerClient, username, loginPerUsername);
+    }
+
+    /**
+     * Takes a registration attempt from the buckets of the client and of the username.
+     *
+     * @param client the address of the client
+     * @param username the username the client tries to register, may be null
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void checkRegistration(String client, String username) {
+        check("register", client, registerPerClient, username, registerPerUsername);
+    }
+
+    /**
+     * Takes a bulk registration from the bucket of the client.
+     *
+     * @param client the address of the client
+     * @throws TooManyRequestsException if the bucket is empty
+     */
+    public void checkBulkRegistration(String client) {
+        check("register_bulk", client, bulkRegisterPerClient, null, null);
+    }
+
+    private void check(String operation, String client, RateLimit clientLimit, String username, RateLimit usernameLimit) {
+        if (!enabled) {
+            return;
+        }
+        acquire(operation, "client", client, clientLimit);
+        if (username != null) {
+            acquire(operation, "username", UserConstraints.usernameKey(username), usernameLimit);
+        }
+    }
+
+    private void acquire(String operation, String keyType, String key, RateLimit limit) {
+        long waitNanos = rateLimiter.tryAcquire(operation + ':' + keyType + ':' + key, limit);
+        if (waitNanos > 0) {
+            meterRegistry.counter("auth.rate_limited", "operation", operation, "key", keyType).increment();
+            long retryAfterSeconds = (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            throw new TooManyRequestsException("Too many attempts, retry later", retryAfterSeconds);
+        }
+    }
+}
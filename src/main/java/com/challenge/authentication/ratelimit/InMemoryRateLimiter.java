@@ -0,0 +1,89 @@
+package com.challenge.authentication.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process {@link RateLimiter} using the generic cell rate algorithm (GCRA).
+ *
+ * GCRA is a token bucket stored as a single number per key, the theoretical arrival time of the
+ * next request: a request is allowed if that time is less than one bucket capacity ahead of now,
+ * and then pushes it one emission interval further. The number lives in an {@link AtomicLong}
+ * updated with a compare-and-set loop, so concurrent requests never lock.
+ *
+ * Buckets are held in a Caffeine cache bounded by {@code maximumKeys}. A bucket untouched for a
+ * whole period is full again, so it expires then; evicting it any earlier only lets its key start
+ * over with a full bucket.
+ */
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final Cache<String, Bucket> buckets;
+
+    private final LongSupplier nanoClock;
+
+    public InMemoryRateLimiter(long maximumKeys) {
+        this(maximumKeys, System::nanoTime);
+    }
+
+    InMemoryRateLimiter(long maximumKeys, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfter(new BucketExpiry())
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimit limit) {
+        long now = nanoClock.getAsLong();
+        long interval = limit.emissionIntervalNanos();
+        long tolerance = limit.period().toNanos() - interval;
+        AtomicLong arrival = buckets.get(key, k -> new Bucket(now, limit.period().toNanos())).arrival;
+
+        while (true) {
+            long theoreticalArrival = arrival.get();
+            long start = Math.max(theoreticalArrival, now);
+            long wait = start - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(theoreticalArrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private final AtomicLong arrival;
+
+        private final long ttlNanos;
+
+        Bucket(long now, long ttlNanos) {
+            this.arrival = new AtomicLong(now);
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class BucketExpiry implements Expiry<String, Bucket> {
+
+        @Override
+        public long expireAfterCreate(String key, Bucket bucket, long currentTime) {
+            return bucket.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Bucket bucket, long currentTime, long currentDuration) {
+            return bucket.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Bucket bucket, long currentTime, long currentDuration) {
+            return bucket.ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.challenge.authentication.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * A token bucket limit: up to {@code capacity} requests at once, refilled at {@code capacity}
+ * requests per {@code period}.
+ *
+ * @param capacity the burst size, also the number of requests allowed per period
+ * @param period the time it takes an empty bucket to fill up again
+ */
+public record RateLimit(int capacity, Duration period) {
+
+    public RateLimit {
+        if (capacity < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("A rate limit needs a positive capacity and period");
+        }
+    }
+
+    /**
+     * Returns the time it takes for one request to be refilled.
+     *
+     * @return the emission interval in nanoseconds
+     */
+    public long emissionIntervalNanos() {
+        return period.toNanos() / capacity;
+    }
+}
@@ -0,0 +1,20 @@
+package com.challenge.authentication.ratelimit;
+
+/**
+ * Storage backend of the rate limits, deciding whether a request fits in the bucket of its key.
+ *
+ * {@link InMemoryRateLimiter} keeps the buckets of each instance apart. A backend holding them in a
+ * shared store, so that the limits apply across instances, can replace it by registering its own
+ * bean with {@code rate-limit.backend} set to anything but {@code local}.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one request from the bucket of the given key, if the bucket is not empty.
+     *
+     * @param key the key of the bucket, such as a client address or a username
+     * @param limit the limit of the bucket
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds until it would be
+     */
+    long tryAcquire(String key, RateLimit limit);
+}
@@ -0,0 +1,41 @@
+package com.challenge.authentication.repository;
+
+import com.challenge.authentication.entity.User;
+
+import java.util.List;
+
+/**
+ * Bulk operations on users that bypass the persistence context and go straight to JDBC.
+ *
+ * Users inserted this way do not go through {@link com.challenge.authentication.entity.UserEntityListener},
+ * so callers are responsible for announcing them.
+ */
+public interface UserBulkRepository {
+
+    /**
+     * Inserts new users with JDBC batches.
+     *
+     * The whole list is inserted in one transaction. If a username is already taken, the
+     * transaction is rolled back and every user is inserted again in its own transaction, so
+     * only the users with a duplicate username are left out. Any other integrity violation is rethrown;
+     * users inserted one by one before it stay inserted.
+     *
+     * @param users the users to insert, with their password already hashed; their ids are ignored
+     * @return the usernames that were not inserted because they already exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if a user violates another
+     *         constraint than the unique username
+     */
+    List<String> insertAll(List<User> users);
+
+    /**
+     * Reads the next page of users in id order, using the last id read as the position.
+     *
+     * Each page is an independent index range scan, so the cost of a page does not grow with how
+     * far the scan has gone, and no cursor or transaction is held between pages.
+     *
+     * @param afterId the id of the last user of the previous page, or 0 for the first page
+     * @param limit the maximum number of users to read
+     * @return the users with an id greater than afterId, at most limit of them
+     */
+    List<UserRow> findPageAfter(long afterId, int limit);
+}
@@ -0,0 +1,77 @@
+package com.challenge.authentication.repository;
+
+import com.challenge.authentication.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link UserBulkRepository}, picked up by Spring Data as a fragment of
+ * {@link UserRepository}.
+ *
+ * Hibernate cannot batch inserts of entities with IDENTITY ids, since it has to read back each
+ * generated id, but a plain JDBC batch can: the ids are assigned by the database and not needed here.
+ * With MySQL and {@code rewriteBatchedStatements} (prod profile) each batch becomes one multi-row INSERT.
+ */
+public class UserBulkRepositoryImpl implements UserBulkRepository {
+
+    private static final String INSERT_SQL = "insert into user (username, password, balance) values (?, ?, ?)";
+
+    private static final String PAGE_SQL =
+            "select id, username, password, balance from user where id > ? order by id limit ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public List<String> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(users));
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            if (!UserConstraints.isDuplicateUsername(e)) {
+                throw e;
+            }
+            // Another registration took one of the usernames since they were checked
+            List<String> duplicates = new ArrayList<>();
+            for (User user : users) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertBatch(List.of(user)));
+                } catch (DataIntegrityViolationException violation) {
+                    if (!UserConstraints.isDuplicateUsername(violation)) {
+                        throw violation;
+                    }
+                    duplicates.add(user.getUsername());
+                }
+            }
+            return duplicates;
+        }
+    }
+
+    @Override
+    public List<UserRow> findPageAfter(long afterId, int limit) {
+        return jdbcTemplate.query(PAGE_SQL, (resultSet, rowNum) -> new UserRow(
+                resultSet.getLong("id"),
+                resultSet.getString("username"),
+                resultSet.getString("password"),
+                resultSet.getBigDecimal("balance")), afterId, limit);
+    }
+
+    private void insertBatch(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setString(2, user.getPassword());
+            statement.setBigDecimal(3, user.getBalance());
+        });
+    }
+}
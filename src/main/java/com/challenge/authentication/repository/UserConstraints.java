@@ -0,0 +1,63 @@
+package com.challenge.authentication.repository;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Recognizes which constraint of the {@code user} table an insert or update violated.
+ *
+ * Only a violation of {@link #USERNAME_UNIQUE} means that the username is taken. Any other integrity
+ * violation, such as a value too long for its column or a missing index, is a bug or a schema problem
+ * and has to reach the caller as it is.
+ */
+public final class UserConstraints {
+
+    /** Name of the unique constraint on the username, as declared on the entity and in the migrations. */
+    public static final String USERNAME_UNIQUE = "uk_user_username";
+
+    private UserConstraints() {
+    }
+
+    /**
+     * Returns the key under which a username is cached or rate limited.
+     *
+     * MySQL compares usernames case-insensitively, so {@link #USERNAME_UNIQUE} admits one user per
+     * spelling and every spelling finds it. Keying by the lower-cased username lets every spelling of
+     * a username share one entry.
+     *
+     * @param username the username as given
+     * @return the username lower-cased in the root locale
+     */
+    public static String usernameKey(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tells whether an integrity violation was caused by a username that is already taken.
+     *
+     * Hibernate reports the violated constraint by name. Plain JDBC does not, so the messages of the
+     * underlying SQLExceptions are searched for it instead: MySQL names the key in its message, and
+     * H2 names the index backing the constraint after it, in upper case.
+     *
+     * @param e the integrity violation
+     * @return true if the unique constraint on the username was violated
+     */
+    public static boolean isDuplicateUsername(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return mentionsUsernameUnique(violation.getConstraintName());
+            }
+            if (cause instanceof SQLException sqlException && mentionsUsernameUnique(sqlException.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mentionsUsernameUnique(String text) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(USERNAME_UNIQUE);
+    }
+}
@@ -0,0 +1,14 @@
+package com.challenge.authentication.repository;
+
+/**
+ * Projection of the {@link com.challenge.authentication.entity.User} columns needed to authenticate a user.
+ *
+ * Selecting only these columns lets the lookup be answered from the username/password index,
+ * without hydrating the full entity.
+ *
+ * @param id the database id of the user
+ * @param username the username of the user
+ * @param password the password hash of the user
+ */
+public record UserCredentials(Long id, String username, String password) {
+}
@@ -2,20 +2,60 @@ package com.challenge.authentication.repository;
 
 import com.challenge.authentication.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * UserRepository is a Spring Data JPA repository interface for managing User entities.
  *
  * This repository provides CRUD operations and additional methods for querying User entities
- * in the database. It extends JpaRepository to inherit standard database operations.
+ * in the database. It extends JpaRepository to inherit standard database operations, and
+ * UserBulkRepository for JDBC batch inserts.
  *
  * @repository marks this interface as a Spring Data Repository.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBulkRepository {
     Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    /**
+     * Loads only the columns needed to authenticate a user.
+     *
+     * @param username the username of the user
+     * @return the id, username and password hash of the user, if found
+     */
+    Optional<UserCredentials> findCredentialsByUsername(String username);
+
+    /**
+     * Finds which of the given usernames are already taken, reading only the username index.
+     *
+     * @param usernames the usernames to look for
+     * @return the usernames among them that belong to an existing user
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Replaces the password hash of a user, provided it still has the expected value.
+     *
+     * @param id the id of the user
+     * @param currentPassword the password hash the user is expected to have
+     * @param newPassword the new password hash
+     * @return the number of updated rows, 0 if the password changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :currentPassword")
+    int replacePassword(@Param("id") Long id, @Param("currentPassword") String currentPassword,
+                        @Param("newPassword") String newPassword);
 }
 
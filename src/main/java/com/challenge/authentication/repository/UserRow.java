@@ -0,0 +1,15 @@
+package com.challenge.authentication.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of the stored columns of a {@link com.challenge.authentication.entity.User}, read with
+ * plain JDBC for bulk exports.
+ *
+ * @param id the database id of the user
+ * @param username the username of the user
+ * @param password the password hash of the user
+ * @param balance the balance of the user
+ */
+public record UserRow(long id, String username, String password, BigDecimal balance) {
+}
@@ -0,0 +1,49 @@
+package com.challenge.authentication.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal that also carries the database id of the user.
+ *
+ * It is returned by {@link UserService#loadUserByUsername(String)} and can be rebuilt from the
+ * claims of a verified JWT, so neither token generation nor request authentication needs an
+ * extra lookup just to find the id.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    /**
+     * Copy of the stored password hash when it was written with outdated parameters, kept apart from
+     * the password so it survives the credential erasure that follows a successful authentication.
+     */
+    private final String stalePasswordHash;
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, authorities, false);
+    }
+
+    public AuthenticatedUser(Long id, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities, boolean passwordUpgradeRequired) {
+        super(username, password, authorities);
+        this.id = id;
+        this.stalePasswordHash = passwordUpgradeRequired ? password : null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the stored password hash if it should be rehashed with the current encoder parameters.
+     *
+     * @return the outdated password hash, or null if the stored hash is up to date
+     */
+    public String getStalePasswordHash() {
+        return stalePasswordHash;
+    }
+}
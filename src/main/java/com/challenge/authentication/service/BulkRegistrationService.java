@@ -0,0 +1,308 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.dto.BulkRegistrationResultDTO;
+import com.challenge.authentication.dto.BulkRegistrationResultDTO.Status;
+import com.challenge.authentication.dto.UserDTO;
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.exception.PayloadTooLargeException;
+import com.challenge.authentication.exception.ServiceOverloadedException;
+import com.challenge.authentication.mapper.UserMapper;
+import com.challenge.authentication.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Registers many users from a single JSON array.
+ *
+ * The array is read in full before any user is registered, and holds at most
+ * {@code registration.bulk.max-rows} users, so a request over the limit is refused before anything
+ * is created and memory use stays bounded. The users are then registered and answered in chunks of
+ * {@code registration.bulk.chunk-size} users. For each chunk, usernames that are already taken
+ * are found with one query, the passwords of the remaining users are hashed in parallel on the
+ * password hashing executor, and the users are inserted with one JDBC batch. A result is written
+ * for every submitted user, in order, and flushed at the end of each chunk.
+ *
+ * Passwords are only ever hashed on the hashing executor, so a bulk registration shares its bounds
+ * with logins and single registrations. When the executor's queue is full, a chunk waits for its
+ * own slices to finish before queueing more; if it has none running, the service is at capacity
+ * and the request stops with REJECTED results.
+ */
+@Service
+public class BulkRegistrationService {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal(100);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private Executor passwordHashingExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${registration.bulk.chunk-size}")
+    private int chunkSize;
+
+    @Value("${registration.bulk.max-rows}")
+    private int maxRows;
+
+    @Value("${password.hashing.retry-after}")
+    private Duration retryAfter;
+
+    /**
+     * Users read from the body of a bulk registration.
+     *
+     * @param users the submitted users, in order
+     * @param error the reason the body could not be read to its end, or null if it was well-formed
+     */
+    public record BulkRequest(List<UserDTO> users, String error) {
+    }
+
+    /**
+     * Reads a JSON array of UserDTOs.
+     *
+     * If the input is not a well-formed array, the users read before the error are kept along with
+     * a description of it, so they can still be registered.
+     *
+     * @param in the request body
+     * @return the submitted users
+     * @throws PayloadTooLargeException if the array holds more than {@code registration.bulk.max-rows} users
+     * @throws IOException if the request cannot be read
+     */
+    public BulkRequest read(InputStream in) throws IOException {
+        List<UserDTO> users = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of users");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (users.size() == maxRows) {
+                    throw new PayloadTooLargeException("At most " + maxRows + " users can be registered per request");
+                }
+                users.add(objectMapper.readValue(parser, UserDTO.class));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a user object");
+            }
+            return new BulkRequest(users, null);
+        } catch (JsonProcessingException e) {
+            return new BulkRequest(users, "Malformed request: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Registers the users of a bulk registration and writes a JSON array of
+     * BulkRegistrationResultDTOs, one per submitted user.
+     *
+     * Rows are validated against the constraints declared on UserDTO: a row whose username is taken,
+     * or repeated earlier in the request, is reported as CONFLICT, and a row violating a constraint
+     * as INVALID; neither stops the other rows. If the input was not a well-formed array, a last
+     * INVALID result describes the error. If the password hashing executor is at capacity, the users
+     * of the current chunk and of every later chunk are reported as REJECTED; they can be submitted again.
+     *
+     * @param request the users read from the request body
+     * @param out the response body
+     * @throws IOException if the response cannot be written
+     */
+    public void register(BulkRequest request, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            List<UserDTO> users = request.users();
+            int from = 0;
+            try {
+                for (; from < users.size(); from += chunkSize) {
+                    writeResults(generator, registerChunk(users.subList(from, Math.min(from + chunkSize, users.size()))));
+                }
+            } catch (ServiceOverloadedException e) {
+                String message = e.getMessage() + "; retry after " + e.getRetryAfterSeconds() + " s";
+                List<BulkRegistrationResultDTO> rejected = new ArrayList<>(users.size() - from);
+                for (UserDTO userDTO : users.subList(from, users.size())) {
+                    rejected.add(new BulkRegistrationResultDTO(userDTO.getUserName(), Status.REJECTED, message));
+                }
+                writeResults(generator, rejected);
+            }
+            if (request.error() != null) {
+                writeResults(generator, List.of(new BulkRegistrationResultDTO(null, Status.INVALID, request.error())));
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Registers one chunk of users.
+     *
+     * @param users the submitted users
+     * @return the results, in the order of the submitted users
+     */
+    private List<BulkRegistrationResultDTO> registerChunk(List<UserDTO> users) {
+        List<BulkRegistrationResultDTO> results = new ArrayList<>(users.size());
+        if (users.isEmpty()) {
+            return results;
+        }
+
+        // Reject invalid rows and repeated usernames before touching the database
+        Set<String> usernames = new HashSet<>();
+        for (UserDTO userDTO : users) {
+            String error = validate(userDTO);
+            if (error != null) {
+                results.add(new BulkRegistrationResultDTO(userDTO.getUserName(), Status.INVALID, error));
+            } else if (!usernames.add(userDTO.getUserName())) {
+                results.add(new BulkRegistrationResultDTO(userDTO.getUserName(), Status.CONFLICT,
+                        "Duplicate username in request"));
+            } else {
+                results.add(null);
+            }
+        }
+
+        Set<String> existing = usernames.isEmpty()
+                ? Set.of()
+                : new HashSet<>(userRepository.findExistingUsernames(usernames));
+        List<User> newUsers = new ArrayList<>(usernames.size());
+        List<Integer> positions = new ArrayList<>(usernames.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            UserDTO userDTO = users.get(i);
+            if (existing.contains(userDTO.getUserName())) {
+                results.set(i, new BulkRegistrationResultDTO(userDTO.getUserName(), Status.CONFLICT,
+                        "User already exists"));
+            } else {
+                User user = UserMapper.toEntity(userDTO);
+                user.setBalance(INITIAL_BALANCE);
+                newUsers.add(user);
+                positions.add(i);
+            }
+        }
+
+        hashPasswords(newUsers);
+        // Usernames registered by someone else since the lookup are only caught by the unique index
+        Set<String> conflicts = new HashSet<>(userRepository.insertAll(newUsers));
+        for (int i = 0; i < newUsers.size(); i++) {
+            String username = newUsers.get(i).getUsername();
+            if (conflicts.contains(username)) {
+                results.set(positions.get(i), new BulkRegistrationResultDTO(username, Status.CONFLICT,
+                        "User already exists"));
+            } else {
+                results.set(positions.get(i), new BulkRegistrationResultDTO(username, Status.CREATED, null));
+                // Batch inserts bypass the entity listener, so the creation is announced here
+                eventPublisher.publishEvent(new UserChangedEvent(username, UserChangedEvent.Type.CREATED));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Replaces the raw passwords of the given users with their hashes.
+     *
+     * The users are split into one slice per hashing thread, and every slice is hashed on the
+     * password hashing executor. When the executor rejects a slice, the oldest slice of this chunk
+     * still running is waited for before the slice is submitted again, so the chunk never holds more
+     * of the queue than the executor grants it.
+     *
+     * @param users the users whose passwords to hash
+     * @throws ServiceOverloadedException if the executor rejects a slice while none of this chunk is running
+     */
+    private void hashPasswords(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        int slices = Math.min(users.size(), Runtime.getRuntime().availableProcessors());
+        int sliceSize = (users.size() + slices - 1) / slices;
+        Deque<CompletableFuture<Void>> running = new ArrayDeque<>(slices);
+        for (int from = 0; from < users.size(); from += sliceSize) {
+            List<User> slice = users.subList(from, Math.min(from + sliceSize, users.size()));
+            while (true) {
+                try {
+                    running.add(CompletableFuture.runAsync(() -> slice.forEach(this::hashPassword), passwordHashingExecutor));
+                    break;
+                } catch (RejectedExecutionException e) {
+                    if (running.isEmpty()) {
+                        meterRegistry.counter("password.hashing.rejections").increment();
+                        throw new ServiceOverloadedException("Too many concurrent registrations", retryAfter.toSeconds());
+                    }
+                    running.poll().join();
+                }
+            }
+        }
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void hashPassword(User user) {
+        user.setPassword(passwordEncoder.encode(user.getPassword()));
+    }
+
+    /**
+     * Checks a row against the constraints declared on UserDTO.
+     *
+     * @param userDTO the submitted user
+     * @return the messages of the violated constraints, or null if the row is valid
+     */
+    private String validate(UserDTO userDTO) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(userDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeResults(JsonGenerator generator, List<BulkRegistrationResultDTO> results) throws IOException {
+        for (BulkRegistrationResultDTO result : results) {
+            countOutcome(result.getStatus());
+            generator.writeObject(result);
+        }
+        generator.flush();
+    }
+
+    private void countOutcome(Status status) {
+        meterRegistry.counter("auth.register.bulk", "outcome", status.name().toLowerCase(Locale.ROOT)).increment();
+    }
+}
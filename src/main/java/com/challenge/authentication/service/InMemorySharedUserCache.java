@@ -0,0 +1,46 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.repository.UserCredentials;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * In-process {@link SharedUserCache}, bounded by {@code maximumSize} and expiring entries {@code ttl}
+ * after they were written.
+ *
+ * It is only shared by the {@link UserCache}s of one JVM, so it stands in for a shared store in tests
+ * and in single-instance setups; it does not carry evictions to other instances.
+ */
+public class InMemorySharedUserCache implements SharedUserCache {
+
+    private final Cache<String, UserCredentials> entries;
+
+    public InMemorySharedUserCache(long maximumSize, Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public UserCredentials get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, UserCredentials credentials) {
+        entries.put(key, credentials);
+    }
+
+    @Override
+    public void putIfAbsent(String key, UserCredentials credentials) {
+        entries.asMap().putIfAbsent(key, credentials);
+    }
+
+    @Override
+    public void evict(String key) {
+        entries.invalidate(key);
+    }
+}
@@ -0,0 +1,51 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.repository.UserCredentials;
+
+/**
+ * Shared tier of the {@link UserCache}, holding user credentials for every instance of the service.
+ *
+ * {@link InMemorySharedUserCache} keeps them in the memory of one instance and stands in for a shared
+ * store in tests. A store shared between instances, such as Redis, is plugged in by setting
+ * {@code users.cache.shared.backend} to anything but {@code in-memory} or {@code none} and registering
+ * its own bean. Since the entries hold password hashes, the store must be protected like the database.
+ *
+ * Entries are keyed by the key the {@link UserCache} derives from the username, which is the same for
+ * every spelling of it.
+ */
+public interface SharedUserCache {
+
+    /**
+     * Returns the cached credentials of a user.
+     *
+     * @param key the cache key of the user
+     * @return the credentials, or null if they are not cached
+     */
+    UserCredentials get(String key);
+
+    /**
+     * Caches the credentials of a user, replacing any previous entry.
+     *
+     * @param key the cache key of the user
+     * @param credentials the current credentials of the user
+     */
+    void put(String key, UserCredentials credentials);
+
+    /**
+     * Caches the credentials of a user read from the database, unless an entry is already cached.
+     *
+     * A load can finish after another instance wrote newer credentials through, so it must never
+     * replace an entry; a store shared between instances does this atomically (e.g. {@code SET NX}).
+     *
+     * @param key the cache key of the user
+     * @param credentials the credentials as read from the database
+     */
+    void putIfAbsent(String key, UserCredentials credentials);
+
+    /**
+     * Removes the cached credentials of a user.
+     *
+     * @param key the cache key of the user
+     */
+    void evict(String key);
+}
@@ -0,0 +1,99 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.dto.AuthResponseDTO;
+import com.challenge.authentication.exception.InvalidTokenException;
+import com.challenge.authentication.jwt.JwtUtil;
+import com.challenge.authentication.jwt.TokenRevocationService;
+import com.challenge.authentication.jwt.TokenType;
+import com.challenge.authentication.jwt.VerifiedClaims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * Issues, rotates and revokes the access and refresh tokens of authenticated users.
+ *
+ * Refresh tokens are single use: each refresh revokes the presented token and issues a new one in
+ * the same family. Presenting a refresh token that was already used means it was copied, so the
+ * whole family is revoked and the user has to log in again. Refreshing only verifies and signs
+ * tokens; it never hashes a password.
+ */
+@Service
+public class TokenService {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    /**
+     * Issues an access token and a refresh token starting a new family for a user who just logged in.
+     *
+     * @param user the authenticated user
+     * @return the tokens and the user id
+     */
+    public AuthResponseDTO issueTokens(AuthenticatedUser user) {
+        return new AuthResponseDTO(jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user, null), user.getId());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     *
+     * @param refreshToken the refresh token issued at login or by the previous refresh
+     * @return the new tokens and the user id
+     * @throws InvalidTokenException if the refresh token is invalid, expired, revoked or was already used
+     */
+    public AuthResponseDTO refresh(String refreshToken) {
+        VerifiedClaims claims = verifyRefreshToken(refreshToken);
+        if (revocationService.isTokenRevoked(claims.family())
+                || revocationService.isRevoked(claims.subject(), claims.issuedAt())) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        if (!revocationService.revokeToken(claims.id(), claims.expiration())) {
+            // Every token of the family may still be in the hands of whoever replayed this one
+            revocationService.revokeToken(claims.family(), Instant.now().plus(jwtUtil.refreshTokenTtl()));
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+
+        AuthenticatedUser user = claims.toPrincipal();
+        return new AuthResponseDTO(jwtUtil.generateToken(user), jwtUtil.generateRefreshToken(user, claims.family()),
+                user.getId());
+    }
+
+    /**
+     * Revokes an access token and, if given, the family of a refresh token of the same user.
+     *
+     * @param accessToken the bearer token of the logout request
+     * @param refreshToken the refresh token to revoke, may be null
+     * @throws InvalidTokenException if the refresh token is invalid or belongs to another user
+     */
+    public void logout(String accessToken, String refreshToken) {
+        VerifiedClaims access = jwtUtil.parseToken(accessToken);
+        if (access.id() != null) {
+            revocationService.revokeToken(access.id(), access.expiration());
+        }
+        if (refreshToken != null) {
+            VerifiedClaims refresh = verifyRefreshToken(refreshToken);
+            if (!refresh.subject().equals(access.subject())) {
+                throw new InvalidTokenException("Refresh token belongs to another user");
+            }
+            revocationService.revokeToken(refresh.family(), Instant.now().plus(jwtUtil.refreshTokenTtl()));
+        }
+    }
+
+    private VerifiedClaims verifyRefreshToken(String refreshToken) {
+        VerifiedClaims claims;
+        try {
+            claims = jwtUtil.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (claims.type() != TokenType.REFRESH || claims.id() == null || claims.family() == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        return claims;
+    }
+}
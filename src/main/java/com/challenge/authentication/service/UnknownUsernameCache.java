@@ -0,0 +1,72 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.repository.UserConstraints;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of usernames that were looked up and found to have no user.
+ *
+ * Credential stuffing replays the same lists of usernames, most of which do not exist here; once a
+ * username is known to be missing, further logins with it are rejected without a query. Entries are
+ * keyed like the {@link UserCache}, by the lower-cased username, and are dropped as soon as a user
+ * with any spelling of that username is created on this instance. A user created
+ * through another instance is only seen once the entry expires after {@code users.unknown-cache.ttl},
+ * so the TTL bounds how long such a user can be refused. Hit and miss counters are published under
+ * the {@code users.unknown} cache name.
+ */
+@Component
+public class UnknownUsernameCache {
+
+    private final Cache<String, Boolean> unknownUsernames;
+
+    public UnknownUsernameCache(@Value("${users.unknown-cache.maximum-size}") long maximumSize,
+                                @Value("${users.unknown-cache.ttl}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.unknownUsernames = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownUsernames, "users.unknown");
+    }
+
+    /**
+     * Checks if the given username was recently found to have no user.
+     *
+     * @param username the username to check
+     * @return true if the username is known to be missing, false if it must be looked up
+     */
+    public boolean isUnknown(String username) {
+        return unknownUsernames.getIfPresent(UserConstraints.usernameKey(username)) != null;
+    }
+
+    /**
+     * Records that no user has the given username.
+     *
+     * @param username the username that was looked up
+     */
+    public void markUnknown(String username) {
+        unknownUsernames.put(UserConstraints.usernameKey(username), Boolean.TRUE);
+    }
+
+    /**
+     * Forgets a username once a user with it has been created and committed.
+     *
+     * @param event the change that happened to the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.CREATED) {
+            unknownUsernames.invalidate(UserConstraints.usernameKey(event.username()));
+        }
+    }
+}
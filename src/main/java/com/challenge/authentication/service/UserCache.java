@@ -0,0 +1,150 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.repository.UserConstraints;
+import com.challenge.authentication.repository.UserCredentials;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache of user credentials, looked up by username.
+ *
+ * A lookup is answered by the near cache of this instance, bounded by {@code users.cache.maximum-size}
+ * and expiring entries {@code users.cache.ttl} after they were written, then by the
+ * {@link SharedUserCache} if one is configured, and only then by the database. Credentials found in a
+ * lower tier are copied to the tiers above it.
+ *
+ * Changes made on this instance take effect at once: {@link #put} writes new credentials through to
+ * both tiers, and updated or deleted users are evicted from both once the change is committed. Other
+ * instances drop their near entry of a changed user when it expires, so the TTL bounds how long they
+ * may accept a replaced password. Lookups are counted in {@code users.lookups}, tagged with the tier
+ * that answered them, and the near cache is published under the {@code users} cache name.
+ *
+ * Both tiers are keyed by the lower-cased username. MySQL compares usernames case-insensitively, so
+ * every spelling of a username finds the same user; with one key per user, evicting or replacing
+ * its credentials reaches every spelling it was looked up with.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<String, UserCredentials> near;
+
+    private final SharedUserCache shared;
+
+    // Incremented by every write and eviction, so a lookup that raced with one does not cache what it read
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter nearHits;
+
+    private final Counter sharedHits;
+
+    private final Counter databaseLoads;
+
+    public UserCache(@Value("${users.cache.maximum-size}") long maximumSize,
+                     @Value("${users.cache.ttl}") Duration ttl,
+                     Optional<SharedUserCache> shared,
+                     MeterRegistry meterRegistry) {
+        this.near = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.shared = shared.orElse(null);
+        CaffeineCacheMetrics.monitor(meterRegistry, near, "users");
+        this.nearHits = meterRegistry.counter("users.lookups", "source", "near");
+        this.sharedHits = meterRegistry.counter("users.lookups", "source", "shared");
+        this.databaseLoads = meterRegistry.counter("users.lookups", "source", "database");
+    }
+
+    /**
+     * Returns the credentials of a user, loading and caching them on a miss in both tiers.
+     *
+     * @param username the username of the user
+     * @param loader loads the credentials from the database; returns null if no user has the username
+     * @return the credentials, or null if the loader found no user
+     */
+    public UserCredentials get(String username, Function<String, UserCredentials> loader) {
+        String key = UserConstraints.usernameKey(username);
+        UserCredentials credentials = near.getIfPresent(key);
+        if (credentials != null) {
+            nearHits.increment();
+            return credentials;
+        }
+
+        long seen = generation.get();
+        credentials = shared == null ? null : shared.get(key);
+        if (credentials != null) {
+            sharedHits.increment();
+        } else {
+            // Loaded outside the cache's compute lock, which would pin the carrier of a virtual thread
+            credentials = loader.apply(username);
+            databaseLoads.increment();
+            if (credentials == null) {
+                return null;
+            }
+            // Never replaces an entry, which may have been written through since the load. An eviction by
+            // another instance between the load and this put can still be undone; the shared TTL bounds that.
+            if (shared != null && generation.get() == seen) {
+                shared.putIfAbsent(key, credentials);
+            }
+        }
+        UserCredentials loaded = credentials;
+        near.asMap().compute(key, (ignored, current) -> generation.get() == seen ? loaded : current);
+        return credentials;
+    }
+
+    /**
+     * Writes the current credentials of a user through to both tiers, after they were stored in the
+     * database. Any code changing the password of a user without going through the entity calls this.
+     *
+     * @param credentials the credentials as stored
+     */
+    public void put(UserCredentials credentials) {
+        String key = UserConstraints.usernameKey(credentials.username());
+        generation.incrementAndGet();
+        near.put(key, credentials);
+        if (shared != null) {
+            shared.put(key, credentials);
+        }
+    }
+
+    /**
+     * Removes the credentials of a user from both tiers, whichever spelling of the username they were
+     * looked up with.
+     *
+     * @param username the username of the user
+     */
+    public void evict(String username) {
+        String key = UserConstraints.usernameKey(username);
+        generation.incrementAndGet();
+        near.invalidate(key);
+        if (shared != null) {
+            shared.evict(key);
+        }
+    }
+
+    /**
+     * Evicts a user whose row was updated (e.g. a password or balance change) or deleted, once the
+     * change has been committed. Created users are written through by {@link UserService#saveUser}
+     * or looked up on first use.
+     *
+     * @param event the change that happened to the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() != UserChangedEvent.Type.CREATED) {
+            evict(event.username());
+        }
+    }
+}
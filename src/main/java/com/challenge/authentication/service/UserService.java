@@ -4,9 +4,12 @@ import com.challenge.authentication.dto.UserDTO;
 import com.challenge.authentication.entity.User;
 import com.challenge.authentication.exception.UserAlreadyExistsException;
 import com.challenge.authentication.mapper.UserMapper;
+import com.challenge.authentication.repository.UserConstraints;
+import com.challenge.authentication.repository.UserCredentials;
 import com.challenge.authentication.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,7 +17,8 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -24,31 +28,111 @@ public class UserService implements UserDetailsService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    @Qualifier("passwordHashingExecutor")
+    private Executor passwordHashingExecutor;
+
+    @Autowired
+    private UnknownUsernameCache unknownUsernames;
+
+    @Autowired
+    private UserCache userCache;
+
+    /**
+     * Loads the credentials of a user.
+     *
+     * Known users are answered by the {@link UserCache}, which queries the database only on a miss in
+     * both of its tiers. Usernames recently found to have no user are rejected from {@link UnknownUsernameCache} without
+     * a query. Either way, an unknown username ends in a UsernameNotFoundException, for which the
+     * authentication provider still checks the password against a dummy hash of the current cost, so
+     * a login spends the same hashing time whether or not the user exists.
+     *
+     * @param username the username of the user
+     * @return the authenticated user, not yet checked against a password
+     * @throws UsernameNotFoundException if no user has the given username
+     */
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    public AuthenticatedUser loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (unknownUsernames.isUnknown(username)) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        UserCredentials user = userCache.get(username, this::findCredentials);
+        if (user == null) {
+            unknownUsernames.markUnknown(username);
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
 
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
-                true, true, true, true, new ArrayList<>());
+        // Users have no stored authorities yet
+        return new AuthenticatedUser(user.id(), user.username(), user.password(), new ArrayList<>(),
+                passwordEncoder.upgradeEncoding(user.password()));
     }
 
+    /**
+     * Registers a new user with a single insert.
+     *
+     * There is no lookup before the insert: the unique index on the username rejects duplicates
+     * atomically, also between concurrent registrations, and its violation is reported as a
+     * UserAlreadyExistsException. Other integrity violations are rethrown as they are. The new
+     * credentials are written through to the {@link UserCache}.
+     *
+     * @param userDTO the username and raw password of the user to register
+     * @return the persisted user
+     * @throws UserAlreadyExistsException if a user with the same username already exists
+     * @throws DataIntegrityViolationException if the user violates any other constraint
+     */
     public User saveUser(UserDTO userDTO) {
         User user = UserMapper.toEntity(userDTO);
 
-        if (userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new UserAlreadyExistsException("User already exists");
-        }
-
         user.setBalance(new BigDecimal(100)); // adding balance to the user
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        try {
+            // The IDENTITY id strategy makes save() issue the INSERT immediately
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!UserConstraints.isDuplicateUsername(e)) {
+                throw e;
+            }
+            throw new UserAlreadyExistsException("User already exists", e);
+        }
+        userCache.put(new UserCredentials(user.getId(), user.getUsername(), user.getPassword()));
+        return user;
+    }
+
+    /**
+     * Rehashes the password of a freshly authenticated user in the background if the stored hash
+     * was written with outdated parameters. If the hashing executor is busy, the upgrade is skipped
+     * and attempted again at a later login. The update bypasses the entity, so the new hash is written
+     * through to the {@link UserCache} here.
+     *
+     * @param user the authenticated user
+     * @param rawPassword the password the user just authenticated with
+     */
+    public void upgradePasswordIfNeeded(AuthenticatedUser user, String rawPassword) {
+        final String stalePasswordHash = user.getStalePasswordHash();
+        if (stalePasswordHash == null) {
+            return;
+        }
+
+        try {
+            passwordHashingExecutor.execute(() -> {
+                String newPasswordHash = passwordEncoder.encode(rawPassword);
+                if (userRepository.replacePassword(user.getId(), stalePasswordHash, newPasswordHash) == 1) {
+                    userCache.put(new UserCredentials(user.getId(), user.getUsername(), newPasswordHash));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The hashing executor is at capacity; the hash is upgraded on a later login instead
+        }
     }
 
     public Long findUserIdByUsername(String username) {
-        Optional<User> user = userRepository.findByUsername(username);
-        return user.map(User::getId).orElse(null); // Returns the ID or null if the user is not found
+        UserCredentials user = userCache.get(username, this::findCredentials);
+        return user == null ? null : user.id(); // Returns the ID or null if the user is not found
+    }
+
+    private UserCredentials findCredentials(String username) {
+        return userRepository.findCredentialsByUsername(username).orElse(null);
     }
 }
 
@@ -0,0 +1,153 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.dto.UserExportDTO;
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.repository.UserRepository;
+import com.challenge.authentication.repository.UserRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exports and imports users as newline-delimited JSON (NDJSON), one UserExportDTO per line.
+ *
+ * Both directions stream: the export reads the table in pages of {@code users.transfer.page-size}
+ * users and writes each page before reading the next, and the import reads
+ * {@code users.transfer.batch-size} lines at a time and inserts them in one JDBC batch and
+ * transaction. Memory use depends on these sizes only, not on the number of users.
+ */
+@Service
+public class UserTransferService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${users.transfer.page-size}")
+    private int pageSize;
+
+    @Value("${users.transfer.batch-size}")
+    private int batchSize;
+
+    /**
+     * The outcome of an import.
+     *
+     * @param imported the number of users inserted
+     * @param skipped the number of lines skipped because the user already exists or a field is missing
+     */
+    public record ImportResult(long imported, long skipped) {
+    }
+
+    /**
+     * Writes every user, in id order, with its password hash and balance.
+     *
+     * Users registered while the export runs are included if their id is beyond the current page.
+     *
+     * @param out the stream to write the NDJSON lines to; it is flushed but not closed
+     * @return the number of users written
+     * @throws IOException if the stream cannot be written
+     */
+    public long exportUsers(OutputStream out) throws IOException {
+        long exported = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long lastId = 0;
+            List<UserRow> page;
+            do {
+                page = userRepository.findPageAfter(lastId, pageSize);
+                for (UserRow row : page) {
+                    generator.writeObject(new UserExportDTO(row.username(), row.password(), row.balance()));
+                    generator.writeRaw('\n');
+                    lastId = row.id();
+                }
+                exported += page.size();
+                generator.flush();
+            } while (page.size() == pageSize);
+        }
+        return exported;
+    }
+
+    /**
+     * Inserts the users of an export, keeping their password hashes.
+     *
+     * Lines whose username already exists, or that lack a username or password, are skipped. Each
+     * batch is committed on its own, so if a line cannot be parsed or inserted, the batches before it
+     * stay imported and the import can be resumed by running it again on the same file.
+     *
+     * @param in the stream to read the NDJSON lines from
+     * @return the number of imported and skipped users
+     * @throws IOException if the stream cannot be read or a line is not a valid UserExportDTO
+     * @throws org.springframework.dao.DataIntegrityViolationException if a line violates another
+     *         constraint than the unique username, e.g. a value too long for its column
+     */
+    public ImportResult importUsers(InputStream in) throws IOException {
+        long imported = 0;
+        long skipped = 0;
+        try (MappingIterator<UserExportDTO> lines = objectMapper.readerFor(UserExportDTO.class).readValues(in)) {
+            List<User> batch = new ArrayList<>(batchSize);
+            while (lines.hasNextValue()) {
+                UserExportDTO line = lines.nextValue();
+                if (isBlank(line.getUserName()) || isBlank(line.getPassword())) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(toEntity(line));
+                if (batch.size() == batchSize) {
+                    int inserted = insertBatch(batch);
+                    imported += inserted;
+                    skipped += batch.size() - inserted;
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                int inserted = insertBatch(batch);
+                imported += inserted;
+                skipped += batch.size() - inserted;
+            }
+        }
+        return new ImportResult(imported, skipped);
+    }
+
+    private int insertBatch(List<User> batch) {
+        List<String> duplicates = userRepository.insertAll(batch);
+        Set<String> skipped = new HashSet<>(duplicates);
+        for (User user : batch) {
+            if (!skipped.contains(user.getUsername())) {
+                // Batch inserts bypass the entity listener, so the creation is announced here
+                eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), UserChangedEvent.Type.CREATED));
+            }
+        }
+        return batch.size() - duplicates.size();
+    }
+
+    private static User toEntity(UserExportDTO line) {
+        User user = new User();
+        user.setUsername(line.getUserName());
+        user.setPassword(line.getPassword());
+        user.setBalance(line.getBalance() != null ? line.getBalance() : BigDecimal.ZERO);
+        return user;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,12 @@
+-- Schema previously created by Hibernate (spring.jpa.hibernate.ddl-auto=update). Databases created that way
+-- are baselined at this version by spring.flyway.baseline-on-migrate instead of running it.
+create table user (
+    id bigint not null auto_increment,
+    username varchar(255),
+    password varchar(255),
+    balance decimal(38,2),
+    primary key (id),
+    constraint uk_user_username unique (username)
+) engine=InnoDB;
+
+create index idx_user_username_password on user (username, password);
@@ -0,0 +1,61 @@
+package com.challenge.authentication;
+
+import com.challenge.authentication.dto.AuthRequestDTO;
+import com.challenge.authentication.dto.UserDTO;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * AuthenticationSmokeTest walks through registration, login and an authenticated request over HTTP,
+ * against the application started on a random port.
+ *
+ * Besides running with the other tests on the JVM, it is the test run as a native executable by
+ * {@code ./mvnw -PnativeTest test}, so it uses no mocks and only the public API of the application.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AuthenticationSmokeTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    /**
+     * Tests that a registered user can log in and that the access token from the login
+     * authenticates a request to {@code /api/auth/me}.
+     */
+    @Test
+    void testRegisterLoginAndMe() {
+        UserDTO user = new UserDTO();
+        user.setUserName("smokeUser");
+        user.setPassword("smokePass1");
+        ResponseEntity<String> registered = restTemplate.postForEntity("/api/auth/register", user, String.class);
+        assertEquals(HttpStatus.OK, registered.getStatusCode());
+
+        AuthRequestDTO login = new AuthRequestDTO();
+        login.setUserName("smokeUser");
+        login.setPassword("smokePass1");
+        ResponseEntity<String> loggedIn = restTemplate.postForEntity("/api/auth/login", login, String.class);
+        assertEquals(HttpStatus.OK, loggedIn.getStatusCode());
+        String token = JsonPath.read(loggedIn.getBody(), "$.token");
+        assertNotNull(token);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        ResponseEntity<UserDTO> me = restTemplate.exchange("/api/auth/me", HttpMethod.GET,
+                new HttpEntity<>(headers), UserDTO.class);
+        assertEquals(HttpStatus.OK, me.getStatusCode());
+        assertEquals("smokeUser", me.getBody().getUserName());
+    }
+}
@@ -0,0 +1,49 @@
+package com.challenge.authentication.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * DataSourceConfigTest is a test class for the connection pool size derived by {@link DataSourceConfig}.
+ */
+class DataSourceConfigTest {
+
+    /**
+     * Tests that the pool gets two connections per core plus one, unless the expected concurrency or
+     * the connection limit is lower, and never fewer than two.
+     */
+    @Test
+    void testPoolSize_BoundedByCoresConcurrencyAndLimit() {
+        assertEquals(9, DataSourceConfig.poolSize(4, 32, 20));
+        assertEquals(10, DataSourceConfig.poolSize(16, 10, 50));
+        assertEquals(20, DataSourceConfig.poolSize(32, 100, 20));
+        assertEquals(2, DataSourceConfig.poolSize(1, 1, 10));
+        assertEquals(2, DataSourceConfig.poolSize(8, 32, 1));
+    }
+
+    /**
+     * Tests that the pool is resized only when auto sizing is enabled, to a fixed size.
+     */
+    @Test
+    void testHikariPoolSizer_AppliesOnlyWhenEnabled() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("datasource.pool.expected-concurrency", "1")
+                .withProperty("datasource.pool.max-size", "20");
+        BeanPostProcessor sizer = DataSourceConfig.hikariPoolSizer(environment);
+
+        HikariDataSource untouched = new HikariDataSource();
+        untouched.setMaximumPoolSize(7);
+        sizer.postProcessBeforeInitialization(untouched, "dataSource");
+        assertEquals(7, untouched.getMaximumPoolSize());
+
+        environment.setProperty("datasource.pool.auto-size", "true");
+        HikariDataSource sized = new HikariDataSource();
+        sizer.postProcessBeforeInitialization(sized, "dataSource");
+        assertEquals(2, sized.getMaximumPoolSize());
+        assertEquals(2, sized.getMinimumIdle());
+    }
+}
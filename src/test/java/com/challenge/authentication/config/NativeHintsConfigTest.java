@@ -0,0 +1,63 @@
+package com.challenge.authentication.config;
+
+import com.challenge.authentication.dto.AuthResponseDTO;
+import com.challenge.authentication.entity.UserEntityListener;
+import com.challenge.authentication.repository.UserCredentials;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NativeHintsConfigTest is a test class for the reachability metadata registered by {@link NativeHintsConfig}.
+ *
+ * The native image cannot be built as part of the JVM tests, so these tests check that the hints
+ * name classes that exist and cover the members the native image is known to need.
+ */
+class NativeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    /**
+     * Tests that every jjwt class loaded by name exists in the jjwt version on the class path and can be
+     * instantiated, and that the service files of the jackson serializer are included.
+     */
+    @Test
+    void testRegisterHints_CoversJjwtClassesLoadedByName() {
+        new NativeHintsConfig.AuthenticationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (String className : NativeHintsConfig.JJWT_IMPL_CLASSES) {
+            assertTrue(ClassUtils.isPresent(className, null), className + " does not exist");
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(className))
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints), className);
+        }
+        for (List<String> service : NativeHintsConfig.JJWT_SERVICES) {
+            assertTrue(ClassUtils.isPresent(service.get(1), null), service.get(1) + " does not exist");
+            assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/" + service.get(0)).test(hints));
+        }
+    }
+
+    /**
+     * Tests that the JPA types Hibernate creates reflectively and the DTOs bound outside of controller
+     * signatures are registered.
+     */
+    @Test
+    void testRegisterHints_CoversJpaTypesAndDtos() throws Exception {
+        new NativeHintsConfig.AuthenticationRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(), NativeHintsConfig.class);
+
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onField(UserEntityListener.class.getDeclaredField("eventPublisher")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(UserCredentials.class.getDeclaredConstructor(Long.class, String.class, String.class))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(AuthResponseDTO.class, "getToken").test(hints));
+    }
+}
@@ -0,0 +1,23 @@
+package com.challenge.authentication.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PasswordEncoderConfigTest is a test class for the BCrypt strength calibration of {@link PasswordEncoderConfig}.
+ */
+class PasswordEncoderConfigTest {
+
+    /**
+     * Tests that calibration stays within the configured bounds whatever the target, so an instance on
+     * fast hardware cannot raise the strength of the whole fleet past the maximum.
+     */
+    @Test
+    void testCalibrateStrength_StaysWithinBounds() {
+        assertEquals(12, PasswordEncoderConfig.calibrateStrength(Duration.ofHours(1), 10, 12));
+        assertEquals(10, PasswordEncoderConfig.calibrateStrength(Duration.ofNanos(1), 10, 12));
+    }
+}
@@ -0,0 +1,100 @@
+package com.challenge.authentication.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SecuritySettingsReloaderTest is a test class for reloading the {@link SecuritySettings} from a
+ * watched file, as seen by the {@link RouteTable} and the {@link ReloadableCorsConfigurationSource}.
+ */
+class SecuritySettingsReloaderTest {
+
+    @TempDir
+    Path directory;
+
+    private RouteTable routeTable;
+
+    private ReloadableCorsConfigurationSource corsConfigurationSource;
+
+    private SecuritySettingsReloader reloader;
+
+    @AfterEach
+    void tearDown() {
+        reloader.stop();
+    }
+
+    /**
+     * Tests that the file applies at startup and on every change, that properties missing from it
+     * keep their startup value, and that an invalid file leaves the settings in effect untouched.
+     */
+    @Test
+    void testReload_AppliesValidChangesWithoutRestart() throws Exception {
+        Path file = directory.resolve("security.properties");
+        Files.writeString(file, "security.routes.public=/api/auth/login,/status\n");
+        SecuritySettingsHolder settingsHolder = new SecuritySettingsHolder(List.of("https://a.example"),
+                Duration.ofHours(1), Duration.ofMinutes(15), Duration.ofDays(14), List.of("/api/auth/login"),
+                List.of("/swagger-ui/**"), this::dispatch);
+        routeTable = new RouteTable(settingsHolder);
+        corsConfigurationSource = new ReloadableCorsConfigurationSource(settingsHolder.current());
+        reloader = new SecuritySettingsReloader(settingsHolder, file.toString(), Duration.ofMillis(50),
+                new SimpleMeterRegistry());
+
+        reloader.start();
+        assertEquals(RouteTable.Access.PUBLIC, routeTable.classify("/status"));
+        assertEquals(RouteTable.Access.DOCS, routeTable.classify("/swagger-ui/index.html"));
+
+        write(file, "cors.allowed-origins=https://b.example\njwt.access-token.ttl=5m\n");
+        awaitUntil(() -> settingsHolder.current().accessTokenTtl().equals(Duration.ofMinutes(5)));
+        assertEquals(List.of("https://b.example"), corsConfigurationSource.getCorsConfiguration(null).getAllowedOrigins());
+        assertEquals(RouteTable.Access.AUTHENTICATED, routeTable.classify("/status"));
+
+        SecuritySettings valid = settingsHolder.current();
+        Files.writeString(file, "jwt.access-token.ttl=30d\n");
+        assertFalse(reloader.reload());
+        Files.writeString(file, "cors.max-age=soon\n");
+        assertFalse(reloader.reload());
+        Files.writeString(file, "security.routes.public=/status,/api/**/login\n");
+        assertFalse(reloader.reload());
+        Files.writeString(file, "security.routes.public=/status\ncors.allowed-origins=https://c.example/path\n");
+        assertFalse(reloader.reload());
+        assertEquals(valid, settingsHolder.current());
+        assertEquals(RouteTable.Access.AUTHENTICATED, routeTable.classify("/status"));
+        assertEquals(List.of("https://b.example"), corsConfigurationSource.getCorsConfiguration(null).getAllowedOrigins());
+    }
+
+    private void dispatch(Object event) {
+        if (event instanceof SecuritySettingsChangedEvent changed) {
+            routeTable.onSettingsChanged(changed);
+            corsConfigurationSource.onSettingsChanged(changed);
+        }
+    }
+
+    // Replaces the file the way editors and config map updates do, with a rename
+    private static void write(Path file, String content) throws IOException {
+        Path temporary = Files.writeString(file.resolveSibling(file.getFileName() + ".tmp"), content);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "settings were not reloaded");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.challenge.authentication.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * AuthControllerOverloadTest is a test class for the behavior of the login and registration endpoints
+ * while the password hashing executor is at capacity, with one hashing thread and no queue.
+ */
+@SpringBootTest(properties = {"password.hashing.pool-size=1", "password.hashing.queue-capacity=0"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthControllerOverloadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    /**
+     * Tests that logins and registrations fail fast with SERVICE UNAVAILABLE, a Retry-After header and a
+     * problem detail body while the only hashing thread is busy, instead of waiting for it.
+     */
+    @Test
+    void testLoginAndRegister_RejectedWhenHashingAtCapacity() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordHashingExecutor.execute(() -> {
+            started.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertTrue(started.await(30, TimeUnit.SECONDS));
+            String credentials = "{\"userName\":\"busyUser\",\"password\":\"busyPass\"}";
+
+            for (String endpoint : new String[] {"/api/auth/login", "/api/auth/register"}) {
+                mockMvc.perform(post(endpoint).contentType(MediaType.APPLICATION_JSON).content(credentials))
+                        .andExpect(request().asyncNotStarted())
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string("Retry-After", "1"))
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON));
+            }
+        } finally {
+            release.countDown();
+        }
+    }
+}
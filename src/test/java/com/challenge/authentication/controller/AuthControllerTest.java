@@ -0,0 +1,564 @@
+package com.challenge.authentication.controller;
+
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * AuthControllerTest exercises the authentication endpoints against an in-memory H2 database.
+ *
+ * Hibernate statistics are enabled in the test profile so the tests can assert how many
+ * statements each endpoint sends to the database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Tests that a successful login looks the user up exactly once.
+     *
+     * The authentication manager loads the user and checks the password; the token and the
+     * user ID in the response are then built from the authenticated principal without
+     * further repository calls.
+     */
+    @Test
+    void testLogin_SingleQuery() throws Exception {
+        User user = new User();
+        user.setUsername("loginUser");
+        user.setPassword(passwordEncoder.encode("loginPass"));
+        user.setBalance(new BigDecimal(100));
+        Long userId = userRepository.save(user).getId();
+
+        statistics.clear();
+
+        mockMvc.perform(asyncDispatch(login("loginUser", "loginPass")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.userId").value(userId));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that once a username used up its login attempts, further attempts are rejected with
+     * TOO MANY REQUESTS and a Retry-After header, without a query or a password hash.
+     */
+    @Test
+    void testLogin_RateLimitedPerUsername() throws Exception {
+        User user = new User();
+        user.setUsername("limitedUser");
+        user.setPassword(passwordEncoder.encode("limitedPass"));
+        userRepository.save(user);
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(asyncDispatch(login("limitedUser", "wrongPass" + i)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        statistics.clear();
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userName\":\"LimitedUser\",\"password\":\"limitedPass\"}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Tests that a login with a wrong password is rejected as unauthorized, with a problem detail body.
+     */
+    @Test
+    void testLogin_InvalidCredentials() throws Exception {
+        User user = new User();
+        user.setUsername("loginUser");
+        user.setPassword(passwordEncoder.encode("loginPass"));
+        userRepository.save(user);
+
+        mockMvc.perform(asyncDispatch(login("loginUser", "wrongPass")))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.title").value("Unauthorized"))
+                .andExpect(jsonPath("$.status").value(401))
+                .andExpect(jsonPath("$.detail").value("Invalid credentials"));
+    }
+
+    /**
+     * Tests that a successful login with a hash written by an outdated encoder configuration
+     * (here an unprefixed BCrypt hash) replaces the stored hash in the background.
+     */
+    @Test
+    void testLogin_RehashesOutdatedPassword() throws Exception {
+        User user = new User();
+        user.setUsername("legacyUser");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("legacyPass"));
+        Long userId = userRepository.save(user).getId();
+
+        mockMvc.perform(asyncDispatch(login("legacyUser", "legacyPass")))
+                .andExpect(status().isOk());
+
+        String rehashed = user.getPassword();
+        for (int i = 0; i < 50 && rehashed.equals(user.getPassword()); i++) {
+            Thread.sleep(100);
+            rehashed = userRepository.findById(userId).orElseThrow().getPassword();
+        }
+        assertTrue(rehashed.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("legacyPass", rehashed));
+        assertFalse(passwordEncoder.upgradeEncoding(rehashed));
+    }
+
+    /**
+     * Tests that concurrent registrations of the same username produce exactly one user.
+     *
+     * Every request is sent at once from its own thread. Exactly one must succeed and all others
+     * must be rejected with CONFLICT by the unique index, each registration costing one INSERT
+     * and no SELECT.
+     */
+    @Test
+    void testRegister_ConcurrentDuplicates() throws Exception {
+        int requests = 8;
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        statistics.clear();
+
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statuses.add(clients.submit(() -> {
+                    start.await();
+                    MvcResult result = mockMvc.perform(post("/api/auth/register")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"userName\":\"duplicateUser\",\"password\":\"duplicate\"}"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+                    return mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get(30, TimeUnit.SECONDS));
+            }
+
+            assertEquals(1, Collections.frequency(results, HttpStatus.OK.value()));
+            assertEquals(requests - 1, Collections.frequency(results, HttpStatus.CONFLICT.value()));
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertEquals(0, statistics.getQueryExecutionCount());
+        assertEquals(requests, statistics.getPrepareStatementCount());
+        assertEquals(1, userRepository.count());
+    }
+
+    /**
+     * Tests that the current user endpoint returns the user a token was issued to, and is
+     * rejected without a token or once the user was deleted.
+     */
+    @Test
+    void testMe_ReturnsTokenSubject() throws Exception {
+        User user = new User();
+        user.setUsername("meUser");
+        user.setPassword(passwordEncoder.encode("mePass"));
+        userRepository.save(user);
+
+        String token = JsonPath.read(mockMvc.perform(asyncDispatch(login("meUser", "mePass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("meUser"));
+        mockMvc.perform(get("/api/auth/me"))
+                .andExpect(status().isForbidden());
+
+        userRepository.delete(userRepository.findByUsername("meUser").orElseThrow());
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Tests that a token is refused once its user was deleted without this instance seeing the change,
+     * as when the user is deleted through another instance, although the user is still cached here.
+     */
+    @Test
+    void testMe_RejectedAfterDeletionElsewhere() throws Exception {
+        User user = new User();
+        user.setUsername("goneUser");
+        user.setPassword(passwordEncoder.encode("gonePass"));
+        userRepository.save(user);
+
+        String token = JsonPath.read(mockMvc.perform(asyncDispatch(login("goneUser", "gonePass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        // Bypasses the entity listener, so no change event reaches the caches of this instance
+        jdbcTemplate.update("DELETE FROM user WHERE username = ?", "goneUser");
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Tests that a refresh token can be exchanged exactly once for a new pair of tokens, with no
+     * statement other than the cached check that the user still exists, that replaying it revokes the tokens refreshed from it, and that refresh
+     * tokens are not accepted as bearer tokens.
+     */
+    @Test
+    void testRefresh_RotatesAndRejectsReuse() throws Exception {
+        User user = new User();
+        user.setUsername("refreshUser");
+        user.setPassword(passwordEncoder.encode("refreshPass"));
+        userRepository.save(user);
+
+        String loginResponse = mockMvc.perform(asyncDispatch(login("refreshUser", "refreshPass")))
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String refreshToken = JsonPath.read(loginResponse, "$.refreshToken");
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isForbidden());
+
+        statistics.clear();
+        String refreshResponse = mockMvc.perform(refresh(refreshToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, statistics.getPrepareStatementCount());
+        String rotatedToken = JsonPath.read(refreshResponse, "$.refreshToken");
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + JsonPath.read(refreshResponse, "$.token")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(refresh(refreshToken))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(refresh(rotatedToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Tests that each rotated refresh token can itself be refreshed, so a session lasts as long as it
+     * keeps refreshing.
+     */
+    @Test
+    void testRefresh_RotatesRepeatedly() throws Exception {
+        User user = new User();
+        user.setUsername("rotatingUser");
+        user.setPassword(passwordEncoder.encode("rotatingPass"));
+        userRepository.save(user);
+
+        String refreshToken = JsonPath.read(mockMvc.perform(asyncDispatch(login("rotatingUser", "rotatingPass")))
+                .andReturn().getResponse().getContentAsString(), "$.refreshToken");
+        for (int i = 0; i < 3; i++) {
+            refreshToken = JsonPath.read(mockMvc.perform(refresh(refreshToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.refreshToken");
+        }
+    }
+
+    /**
+     * Tests that after a logout neither the access token nor the refresh token are accepted anymore.
+     */
+    @Test
+    void testLogout_RevokesTokens() throws Exception {
+        User user = new User();
+        user.setUsername("logoutUser");
+        user.setPassword(passwordEncoder.encode("logoutPass"));
+        userRepository.save(user);
+
+        String loginResponse = mockMvc.perform(asyncDispatch(login("logoutUser", "logoutPass")))
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(loginResponse, "$.token");
+        String refreshToken = JsonPath.read(loginResponse, "$.refreshToken");
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(refresh(refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    /**
+     * Tests that a bulk registration reports every row in order, creates only the new users with
+     * a single lookup of the taken usernames, and requires a token.
+     */
+    @Test
+    void testRegisterBulk_ReportsEveryRow() throws Exception {
+        User existing = new User();
+        existing.setUsername("bulkTaken");
+        existing.setPassword(passwordEncoder.encode("takenPass"));
+        userRepository.save(existing);
+        String token = JsonPath.read(mockMvc.perform(asyncDispatch(login("bulkTaken", "takenPass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        String body = "[{\"userName\":\"bulkOne\",\"password\":\"onePass\"},"
+                + "{\"userName\":\"bulkTaken\",\"password\":\"otherPass\"},"
+                + "{\"userName\":\"bulkTwo\",\"password\":\"twoPass\"},"
+                + "{\"userName\":\"bulkOne\",\"password\":\"againPass\"},"
+                + "{\"userName\":\"x\",\"password\":\"shortName\"}]";
+
+        mockMvc.perform(post("/api/auth/register/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isForbidden());
+
+        statistics.clear();
+        MvcResult result = mockMvc.perform(post("/api/auth/register/bulk")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(List.of("CREATED", "CONFLICT", "CREATED", "CONFLICT", "INVALID"), JsonPath.read(response, "$[*].status"));
+        assertEquals("bulkTaken", JsonPath.read(response, "$[1].userName"));
+        assertEquals("Username must be between 3 and 30 characters", JsonPath.read(response, "$[4].message"));
+        // The user of the bearer token is in the user cache since the login; one query checks that it still
+        // exists, which holds for jwt.revocation.check-ttl, and one finds the taken usernames
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(3, userRepository.count());
+        assertTrue(passwordEncoder.matches("twoPass", userRepository.findByUsername("bulkTwo").orElseThrow().getPassword()));
+    }
+
+    /**
+     * Tests that bulk registration is refused to authenticated users missing from the allow-list, that
+     * a body over the row limit creates nobody and is refused with PAYLOAD TOO LARGE, and that each
+     * client is rate limited.
+     */
+    @Test
+    void testRegisterBulk_LimitedToAllowedUsersRowsAndRate() throws Exception {
+        for (String username : List.of("bulkStranger", "bulkAdmin")) {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword(passwordEncoder.encode("limitPass"));
+            userRepository.save(user);
+        }
+        String strangerToken = JsonPath.read(mockMvc.perform(asyncDispatch(login("bulkStranger", "limitPass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+        String adminToken = JsonPath.read(mockMvc.perform(asyncDispatch(login("bulkAdmin", "limitPass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .header("Authorization", "Bearer " + strangerToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 11; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"userName\":\"bulkRow").append(i).append("\",\"password\":\"rowPass\"}");
+        }
+        mockMvc.perform(post("/api/auth/register/bulk")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.append("]").toString()))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON));
+        assertEquals(2, userRepository.count());
+
+        MockHttpServletRequestBuilder fromOneClient = post("/api/auth/register/bulk")
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.16");
+                    return request;
+                });
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(asyncDispatch(mockMvc.perform(fromOneClient).andReturn()))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(fromOneClient)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    /**
+     * Tests that a bulk registration arriving while the password hashing executor is at capacity hashes
+     * nothing outside of it, and reports its users as REJECTED instead of creating them.
+     */
+    @Test
+    void testRegisterBulk_RejectedWhenHashingAtCapacity() throws Exception {
+        User existing = new User();
+        existing.setUsername("bulkOwner");
+        existing.setPassword(passwordEncoder.encode("ownerPass"));
+        userRepository.save(existing);
+        String token = JsonPath.read(mockMvc.perform(asyncDispatch(login("bulkOwner", "ownerPass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger blocked = new AtomicInteger();
+        try {
+            // Tasks of earlier requests may still be finishing, so the queue is topped up until every
+            // hashing thread is blocked here and the rest of the queue is taken by blocked tasks too
+            do {
+                try {
+                    while (true) {
+                        passwordHashingExecutor.execute(() -> {
+                            blocked.incrementAndGet();
+                            awaitQuietly(release);
+                        });
+                    }
+                } catch (RejectedExecutionException e) {
+                    Thread.sleep(10);
+                }
+            } while (blocked.get() < passwordHashingExecutor.getMaxPoolSize());
+            try {
+                while (true) {
+                    passwordHashingExecutor.execute(() -> awaitQuietly(release));
+                }
+            } catch (RejectedExecutionException e) {
+                // Every hashing thread is blocked and the queue is full
+            }
+            MvcResult result = mockMvc.perform(post("/api/auth/register/bulk")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[{\"userName\":\"bulkLate\",\"password\":\"latePass\"}]"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String response = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            assertEquals(List.of("REJECTED"), JsonPath.read(response, "$[*].status"));
+            assertFalse(userRepository.findByUsername("bulkLate").isPresent());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Tests that the JWK Set is public, cacheable and answers revalidation with NOT MODIFIED.
+     */
+    @Test
+    void testJwks_IsPublicAndCacheable() throws Exception {
+        MvcResult result = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=3600")))
+                .andExpect(jsonPath("$.keys").isArray())
+                .andReturn();
+
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+    }
+
+    /**
+     * Tests that the Prometheus endpoint requires a token and publishes the authentication hot path
+     * metrics.
+     */
+    @Test
+    void testPrometheusEndpoint_ExposesAuthenticationMetrics() throws Exception {
+        User scraper = new User();
+        scraper.setUsername("scraper");
+        scraper.setPassword(passwordEncoder.encode("scrapePass"));
+        userRepository.save(scraper);
+        String token = JsonPath.read(mockMvc.perform(asyncDispatch(login("scraper", "scrapePass")))
+                .andReturn().getResponse().getContentAsString(), "$.token");
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("password_encoder_seconds")))
+                .andExpect(content().string(containsString("jwt_rejections_total")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"jwt.authentication\"")));
+    }
+
+    private MockHttpServletRequestBuilder refresh(String refreshToken) {
+        return post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}");
+    }
+
+    private MvcResult login(String userName, String password) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userName\":\"" + userName + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
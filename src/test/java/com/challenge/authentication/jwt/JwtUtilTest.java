@@ -0,0 +1,109 @@
+package com.challenge.authentication.jwt;
+
+import com.challenge.authentication.service.AuthenticatedUser;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.security.KeyPair;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtUtilTest is a test class for token signing and verification with the keys of a {@link JwtKeyRing}.
+ *
+ * It verifies that tokens round-trip with every supported algorithm, that tokens signed before a key
+ * rotation are still accepted, and that only public keys are published.
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "uQfBrZjTy5uxIfbI6XjHV8XGfqdPF2X6Y4NU/UgtZs0=";
+
+    private final AuthenticatedUser user = new AuthenticatedUser(42L, "testUser", "password", List.of());
+
+    /**
+     * Tests that a token generated with an asymmetric algorithm carries the signing key id and
+     * is verified back to the same claims.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void testGenerateAndParse_AsymmetricAlgorithms(String algorithm) {
+        JwtKeyRing keyRing = JwtKeyRing.generate(algorithm);
+        JwtUtil jwtUtil = new JwtUtil(keyRing);
+
+        String token = jwtUtil.generateToken(user);
+        VerifiedClaims claims = jwtUtil.parseToken(token);
+
+        assertEquals("testUser", claims.subject());
+        assertEquals(42L, claims.userId());
+        assertEquals(keyRing.signingKeyId(), header(keyRing, token).getKeyId());
+        assertEquals(algorithm, header(keyRing, token).getAlgorithm());
+    }
+
+    /**
+     * Tests that HS256 tokens carry no key id, as before asymmetric keys were supported.
+     */
+    @Test
+    void testGenerateAndParse_Hmac() {
+        JwtKeyRing keyRing = JwtKeyRing.hmac(SECRET);
+        JwtUtil jwtUtil = new JwtUtil(keyRing);
+
+        String token = jwtUtil.generateToken(user);
+
+        assertEquals("testUser", jwtUtil.parseToken(token).subject());
+        assertNull(header(keyRing, token).getKeyId());
+        assertEquals("{\"keys\":[]}", keyRing.jwks());
+    }
+
+    /**
+     * Tests that after the signing key is rotated, tokens signed with the previous key are still
+     * accepted as long as its public key stays in the ring, and that tokens signed with an unknown
+     * key are rejected.
+     */
+    @Test
+    void testParse_AcceptsTokensSignedBeforeRotation() {
+        KeyPair previous = Jwts.SIG.ES256.keyPair().build();
+        KeyPair current = Jwts.SIG.ES256.keyPair().build();
+        String oldToken = new JwtUtil(JwtKeyRing.of("ES256", Map.of("2024-01", previous), "2024-01"))
+                .generateToken(user);
+
+        Map<String, KeyPair> keyPairs = new LinkedHashMap<>();
+        keyPairs.put("2024-01", new KeyPair(previous.getPublic(), null));
+        keyPairs.put("2024-02", current);
+        JwtKeyRing rotatedKeyRing = JwtKeyRing.of("ES256", keyPairs, "2024-02");
+        JwtUtil rotated = new JwtUtil(rotatedKeyRing);
+
+        assertEquals("testUser", rotated.parseToken(oldToken).subject());
+        assertEquals("2024-02", header(rotatedKeyRing, rotated.generateToken(user)).getKeyId());
+
+        String foreignToken = new JwtUtil(JwtKeyRing.generate("ES256")).generateToken(user);
+        assertThrows(SignatureException.class, () -> rotated.parseToken(foreignToken));
+    }
+
+    /**
+     * Tests that the published key set contains every public key and no private key material.
+     */
+    @Test
+    void testJwks_PublishesPublicKeysOnly() {
+        Map<String, KeyPair> keyPairs = new LinkedHashMap<>();
+        keyPairs.put("old", Jwts.SIG.RS256.keyPair().build());
+        keyPairs.put("new", Jwts.SIG.RS256.keyPair().build());
+
+        String jwks = JwtKeyRing.of("RS256", keyPairs, "new").jwks();
+
+        assertTrue(jwks.contains("\"kid\":\"old\""));
+        assertTrue(jwks.contains("\"kid\":\"new\""));
+        assertTrue(jwks.contains("\"use\":\"sig\""));
+        assertFalse(jwks.contains("\"d\""));
+    }
+
+    private static JwsHeader header(JwtKeyRing keyRing, String token) {
+        return Jwts.parser().keyLocator(keyRing.keyLocator()).build().parseSignedClaims(token).getHeader();
+    }
+}
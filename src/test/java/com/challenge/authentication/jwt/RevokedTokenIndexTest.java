@@ -0,0 +1,51 @@
+package com.challenge.authentication.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RevokedTokenIndexTest is a test class for the in-memory index of revoked token ids.
+ *
+ * It verifies that revoked ids are always found, also after the Bloom filter was rebuilt, and that
+ * ids are forgotten once the token they revoke has expired.
+ */
+class RevokedTokenIndexTest {
+
+    /**
+     * Tests that every revoked id is reported as revoked and that revoking an id twice is detected,
+     * with more revocations than the Bloom filter was sized for.
+     */
+    @Test
+    void testRevoke_NoFalseNegativesAcrossRebuilds() {
+        RevokedTokenIndex index = new RevokedTokenIndex(100);
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        String[] ids = new String[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            assertTrue(index.revoke(ids[i], expiresAt));
+        }
+
+        for (String id : ids) {
+            assertTrue(index.isRevoked(id));
+        }
+        assertFalse(index.revoke(ids[0], expiresAt));
+        assertFalse(index.isRevoked(UUID.randomUUID().toString()));
+    }
+
+    /**
+     * Tests that the id of a token that has already expired is not kept.
+     */
+    @Test
+    void testRevoke_ForgetsExpiredTokens() {
+        RevokedTokenIndex index = new RevokedTokenIndex(100);
+        String id = UUID.randomUUID().toString();
+
+        index.revoke(id, Instant.now().minusSeconds(1));
+
+        assertFalse(index.isRevoked(id));
+    }
+}
@@ -0,0 +1,67 @@
+package com.challenge.authentication.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EnsureUserIndexesMigrationTest is a test class for migrating a database that Hibernate created
+ * without the constraint and index of V1, in an in-memory H2 database in MySQL mode.
+ */
+class EnsureUserIndexesMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:baselined;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Tests that a database baselined at version 1 gets the missing unique constraint and index from
+     * migration 2, and that the constraint then rejects duplicate usernames under its name.
+     */
+    @Test
+    void testMigrate_AddsMissingIndexesToBaselinedDatabase() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table user (id bigint not null auto_increment, username varchar(255), "
+                    + "password varchar(255), balance decimal(38,2), primary key (id))");
+        }
+
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .baselineOnMigrate(true)
+                .javaMigrations(new EnsureUserIndexesMigration())
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            List<String> indexes = new ArrayList<>();
+            try (var indexInfo = connection.getMetaData().getIndexInfo(null, null, "USER", false, true)) {
+                while (indexInfo.next()) {
+                    indexes.add(indexInfo.getString("INDEX_NAME").toLowerCase());
+                }
+            }
+            assertTrue(indexes.stream().anyMatch(index -> index.startsWith("uk_user_username")), indexes.toString());
+            assertTrue(indexes.contains("idx_user_username_password"), indexes.toString());
+
+            statement.execute("insert into user (username, password, balance) values ('alice', 'hash', 0)");
+            SQLException duplicate = assertThrows(SQLException.class, () ->
+                    statement.execute("insert into user (username, password, balance) values ('alice', 'hash', 0)"));
+            assertTrue(duplicate.getMessage().toLowerCase().contains("uk_user_username"), duplicate.getMessage());
+        }
+
+        assertEquals(0, Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .javaMigrations(new EnsureUserIndexesMigration())
+                .load()
+                .migrate().migrationsExecuted);
+    }
+}
@@ -0,0 +1,59 @@
+package com.challenge.authentication.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * InMemoryRateLimiterTest is a test class for the token buckets of the {@link InMemoryRateLimiter}.
+ *
+ * The limiter reads time from a manual clock, so refills are tested without waiting.
+ */
+class InMemoryRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final InMemoryRateLimiter rateLimiter = new InMemoryRateLimiter(1000, clock::get);
+
+    /**
+     * Tests that a full bucket allows a burst of its capacity, then one request per emission
+     * interval, and reports how long to wait in between.
+     */
+    @Test
+    void testTryAcquire_BurstThenRefill() {
+        RateLimit limit = new RateLimit(3, Duration.ofSeconds(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        }
+        assertEquals(Duration.ofSeconds(1).toNanos(), rateLimiter.tryAcquire("client", limit));
+        assertEquals(0, rateLimiter.tryAcquire("other", limit));
+
+        clock.addAndGet(Duration.ofMillis(400).toNanos());
+        assertEquals(Duration.ofMillis(600).toNanos(), rateLimiter.tryAcquire("client", limit));
+        clock.addAndGet(Duration.ofMillis(600).toNanos());
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(Duration.ofSeconds(1).toNanos(), rateLimiter.tryAcquire("client", limit));
+    }
+
+    /**
+     * Tests that rejected requests do not consume the bucket, and that a bucket left alone for a
+     * whole period is full again.
+     */
+    @Test
+    void testTryAcquire_RefillsAfterPeriod() {
+        RateLimit limit = new RateLimit(2, Duration.ofMinutes(1));
+        rateLimiter.tryAcquire("user", limit);
+        rateLimiter.tryAcquire("user", limit);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ofSeconds(30).toNanos(), rateLimiter.tryAcquire("user", limit));
+        }
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertEquals(0, rateLimiter.tryAcquire("user", limit));
+        assertEquals(0, rateLimiter.tryAcquire("user", limit));
+    }
+}
@@ -0,0 +1,131 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.repository.UserCredentials;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * UserCacheTest is a test class for the two tiers of the {@link UserCache}, with two caches sharing an
+ * {@link InMemorySharedUserCache} as two instances of the service would share a store.
+ */
+class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SharedUserCache shared = new InMemorySharedUserCache(100, Duration.ofMinutes(10));
+
+    private final UserCache first = new UserCache(100, Duration.ofMinutes(1), Optional.of(shared), meterRegistry);
+
+    private final UserCache second = new UserCache(100, Duration.ofMinutes(1), Optional.of(shared), meterRegistry);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private UserCredentials stored = new UserCredentials(1L, "alice", "{bcrypt}hash");
+
+    private final Function<String, UserCredentials> database = username -> {
+        loads.incrementAndGet();
+        return username.equals(stored.username()) ? stored : null;
+    };
+
+    /**
+     * Tests that a user is loaded from the database once, then served by the near cache of the instance
+     * that loaded it and by the shared tier to the other instance, and that each tier is counted.
+     */
+    @Test
+    void testGet_LoadsOnceAcrossTiers() {
+        assertEquals(stored, first.get("alice", database));
+        assertEquals(stored, first.get("alice", database));
+        assertEquals(stored, second.get("alice", database));
+        assertEquals(stored, second.get("alice", database));
+        assertNull(first.get("bob", database));
+
+        assertEquals(2, loads.get());
+        assertEquals(2.0, meterRegistry.counter("users.lookups", "source", "near").count());
+        assertEquals(1.0, meterRegistry.counter("users.lookups", "source", "shared").count());
+        assertEquals(2.0, meterRegistry.counter("users.lookups", "source", "database").count());
+    }
+
+    /**
+     * Tests that a write goes through to both tiers and that a committed change evicts the user from both,
+     * so the next lookup reads the database again.
+     */
+    @Test
+    void testPutAndEvict_ReachBothTiers() {
+        first.get("alice", database);
+        stored = new UserCredentials(1L, "alice", "{bcrypt}rehashed");
+        first.put(stored);
+
+        assertEquals(stored, first.get("alice", database));
+        assertEquals(stored, second.get("alice", database));
+        assertEquals(1, loads.get());
+
+        first.onUserChanged(new UserChangedEvent("alice", UserChangedEvent.Type.CREDENTIALS_CHANGED));
+        first.get("alice", database);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that the spellings of a username share one entry, as they share one row in MySQL, so a
+     * change of the user evicts the credentials cached under any of them.
+     */
+    @Test
+    void testEvict_ReachesEveryCaseVariant() {
+        Function<String, UserCredentials> caseInsensitiveDatabase = username -> {
+            loads.incrementAndGet();
+            return username.equalsIgnoreCase(stored.username()) ? stored : null;
+        };
+        assertEquals(stored, first.get("Alice", caseInsensitiveDatabase));
+        assertEquals(stored, first.get("ALICE", caseInsensitiveDatabase));
+        assertEquals(stored, second.get("alice", caseInsensitiveDatabase));
+        assertEquals(1, loads.get());
+
+        stored = new UserCredentials(1L, "alice", "{bcrypt}changed");
+        first.onUserChanged(new UserChangedEvent("alice", UserChangedEvent.Type.CREDENTIALS_CHANGED));
+
+        assertEquals(stored, first.get("Alice", caseInsensitiveDatabase));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Tests that credentials loaded by one instance do not replace newer ones another instance wrote
+     * through to the shared tier while the load was running.
+     */
+    @Test
+    void testGet_LoadDoesNotReplaceSharedWrite() {
+        UserCredentials rehashed = new UserCredentials(1L, "alice", "{bcrypt}rehashed");
+        UserCredentials loaded = first.get("alice", username -> {
+            UserCredentials read = database.apply(username);
+            second.put(rehashed);
+            return read;
+        });
+
+        assertEquals(stored, loaded);
+        assertEquals(rehashed, shared.get("alice"));
+    }
+
+    /**
+     * Tests that credentials loaded while the user was changed are returned but not cached, since they
+     * may predate the change.
+     */
+    @Test
+    void testGet_DoesNotCacheLoadRacingWithChange() {
+        UserCredentials loaded = first.get("alice", username -> {
+            first.evict(username);
+            return database.apply(username);
+        });
+
+        assertEquals(stored, loaded);
+        assertNull(shared.get("alice"));
+        first.get("alice", database);
+        assertEquals(2, loads.get());
+    }
+}
@@ -2,15 +2,25 @@ package com.challenge.authentication.service;
 
 import com.challenge.authentication.dto.UserDTO;
 import com.challenge.authentication.entity.User;
+import com.challenge.authentication.entity.UserChangedEvent;
+import com.challenge.authentication.exception.UserAlreadyExistsException;
 import com.challenge.authentication.mapper.UserMapper;
+import com.challenge.authentication.repository.UserCredentials;
 import com.challenge.authentication.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +43,13 @@ class UserServiceTest {
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Spy
+    private UnknownUsernameCache unknownUsernames =
+            new UnknownUsernameCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(1), Optional.empty(), new SimpleMeterRegistry());
+
     @InjectMocks
     private UserService userService;
 
@@ -45,19 +62,18 @@ class UserServiceTest {
      * Tests the successful registration of a new user in the UserService.
      *
      * This method verifies that when a new user is being registered:
-     * - The user does not exist in the repository.
+     * - No lookup is made before the insert.
      * - The password is encoded correctly.
      * - The user is saved successfully in the repository with the expected properties.
      * - The correct methods are invoked on the UserRepository and PasswordEncoder mocks.
      *
      * The method performs the following steps:
      * 1. Creates a new UserDTO object with a sample username and password.
-     * 2. Mocks the UserRepository to return an empty Optional when checking for an existing username.
-     * 3. Mocks the PasswordEncoder to return an encoded password for the given password.
-     * 4. Mocks the UserRepository save method to assign an ID to the saved user and return it.
-     * 5. Calls the UserService's saveUser method with the UserDTO.
-     * 6. Asserts that the returned user is not null, has the expected username and encoded password,
-     *    and that the save method of the UserRepository was called once.
+     * 2. Mocks the PasswordEncoder to return an encoded password for the given password.
+     * 3. Mocks the UserRepository save method to assign an ID to the saved user and return it.
+     * 4. Calls the UserService's saveUser method with the UserDTO.
+     * 5. Asserts that the returned user is not null, has the expected username and encoded password,
+     *    that the save method of the UserRepository was called once and that findByUsername was never called.
      */
     @Test
     void testRegisterUser_Success() {
@@ -65,7 +81,6 @@ class UserServiceTest {
         userDTO.setUserName("testUser");
         userDTO.setPassword("testPass");
 
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.empty());
         when(passwordEncoder.encode("testPass")).thenReturn("encodedPassword");
 
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
@@ -82,6 +97,7 @@ class UserServiceTest {
         assertEquals("encodedPassword", registeredUser.getPassword());
 
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).findByUsername(any());
     }
 
     /**
@@ -89,9 +105,10 @@ class UserServiceTest {
      *
      * This test case:
      * - Sets up a UserDTO with a username and password.
-     * - Mocks an existing user in the UserRepository with the same username.
-     * - Asserts that a RuntimeException is thrown when attempting to save the new user.
-     * - Verifies that the UserRepository save method is never called.
+     * - Mocks the UserRepository save method to fail as the unique index on the username would.
+     * - Asserts that a UserAlreadyExistsException is thrown when attempting to save the new user,
+     *   with the violation as its cause.
+     * - Verifies that the insert was attempted once, without a prior lookup.
      */
     @Test
     void testRegisterUser_UsernameAlreadyExists() {
@@ -99,17 +116,107 @@ class UserServiceTest {
         userDTO.setUserName("testUser");
         userDTO.setPassword("testPass");
 
-        User existingUser = new User();
-        existingUser.setUsername("testUser");
-        existingUser.setPassword("existingPass");
-
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.encode("testPass")).thenReturn("encodedPassword");
+        DataIntegrityViolationException violation = violation("uk_user_username");
+        when(userRepository.save(any(User.class))).thenThrow(violation);
 
-        Exception exception = assertThrows(RuntimeException.class, () -> {
+        Exception exception = assertThrows(UserAlreadyExistsException.class, () -> {
             userService.saveUser(userDTO);
         });
 
         assertEquals("User already exists", exception.getMessage());
-        verify(userRepository, never()).save(any(User.class));
+        assertSame(violation, exception.getCause());
+        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    /**
+     * Tests that an integrity violation of another constraint than the unique username, such as a value
+     * too long for its column, is rethrown instead of being reported as an existing user.
+     */
+    @Test
+    void testRegisterUser_OtherViolationRethrown() {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setUserName("testUser");
+        userDTO.setPassword("testPass");
+
+        DataIntegrityViolationException violation = violation(null);
+        when(passwordEncoder.encode("testPass")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> userService.saveUser(userDTO)));
+    }
+
+    /**
+     * Tests that an unknown username is looked up once and then rejected without a query, until a
+     * user with that username is created.
+     */
+    @Test
+    void testLoadUserByUsername_CachesUnknownUsernames() {
+        when(userRepository.findCredentialsByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("ghost"));
+        verify(userRepository, times(1)).findCredentialsByUsername("ghost");
+
+        unknownUsernames.onUserChanged(new UserChangedEvent("ghost", UserChangedEvent.Type.CREATED));
+        when(userRepository.findCredentialsByUsername("ghost"))
+                .thenReturn(Optional.of(new UserCredentials(7L, "ghost", "{bcrypt}hash")));
+
+        assertEquals(7L, userService.loadUserByUsername("ghost").getId());
+    }
+
+    /**
+     * Tests that creating a user clears the unknown username whichever spelling it was looked up with,
+     * as MySQL finds the user under every spelling.
+     */
+    @Test
+    void testLoadUserByUsername_CreationClearsEveryCaseVariant() {
+        when(userRepository.findCredentialsByUsername("BOB")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("BOB"));
+        unknownUsernames.onUserChanged(new UserChangedEvent("bob", UserChangedEvent.Type.CREATED));
+        when(userRepository.findCredentialsByUsername("BOB"))
+                .thenReturn(Optional.of(new UserCredentials(8L, "bob", "{bcrypt}hash")));
+
+        assertEquals(8L, userService.loadUserByUsername("BOB").getId());
+    }
+
+    /**
+     * Tests that a registered user is written through to the user cache, so that its logins are
+     * answered without a query until the user changes.
+     */
+    @Test
+    void testLoadUserByUsername_WrittenThroughOnSave() {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setUserName("cachedUser");
+        userDTO.setPassword("cachedPass");
+        when(passwordEncoder.encode("cachedPass")).thenReturn("{bcrypt}hash");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User savedUser = invocation.getArgument(0);
+            savedUser.setId(3L);
+            return savedUser;
+        });
+
+        userService.saveUser(userDTO);
+        assertEquals(3L, userService.loadUserByUsername("cachedUser").getId());
+        assertEquals(3L, userService.findUserIdByUsername("cachedUser"));
+        verify(userRepository, never()).findCredentialsByUsername(any());
+
+        userCache.onUserChanged(new UserChangedEvent("cachedUser", UserChangedEvent.Type.CREDENTIALS_CHANGED));
+        when(userRepository.findCredentialsByUsername("cachedUser"))
+                .thenReturn(Optional.of(new UserCredentials(3L, "cachedUser", "{bcrypt}newHash")));
+
+        assertEquals("{bcrypt}newHash", userService.loadUserByUsername("cachedUser").getPassword());
+        verify(userRepository, times(1)).findCredentialsByUsername("cachedUser");
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        String message = constraintName != null
+                ? "Duplicate entry 'testUser' for key 'user." + constraintName + "'"
+                : "Data too long for column 'username' at row 1";
+        SQLException cause = new SQLException(message, "23000");
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, cause, constraintName));
     }
 }
@@ -0,0 +1,85 @@
+package com.challenge.authentication.service;
+
+import com.challenge.authentication.entity.User;
+import com.challenge.authentication.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UserTransferServiceTest is a test class for exporting and importing users against an in-memory H2 database.
+ *
+ * Pages and batches are smaller than the number of users, so the export and import cross several of them.
+ */
+@SpringBootTest(properties = {"users.transfer.page-size=2", "users.transfer.batch-size=2"})
+@ActiveProfiles("test")
+class UserTransferServiceTest {
+
+    @Autowired
+    private UserTransferService userTransferService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Tests that an export written as one line per user can be imported back with the same password
+     * hashes and balances, skipping the users that still exist.
+     */
+    @Test
+    void testExportAndImport_RoundTrip() throws Exception {
+        userRepository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setUsername("transfer" + i);
+            user.setPassword("{bcrypt}hash" + i);
+            user.setBalance(new BigDecimal(10 * i));
+            userRepository.save(user);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, userTransferService.exportUsers(out));
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertEquals(5, export.lines().count());
+
+        userRepository.deleteAll(userRepository.findAll().stream()
+                .filter(user -> !user.getUsername().equals("transfer0"))
+                .toList());
+        UserTransferService.ImportResult result =
+                userTransferService.importUsers(new ByteArrayInputStream(export.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, result.imported());
+        assertEquals(1, result.skipped());
+        User imported = userRepository.findByUsername("transfer3").orElseThrow();
+        assertEquals("{bcrypt}hash3", imported.getPassword());
+        assertEquals(0, new BigDecimal(30).compareTo(imported.getBalance()));
+    }
+
+    /**
+     * Tests that a line the database rejects for another reason than an existing username fails the
+     * import instead of being counted as skipped, and that the batches before it stay imported.
+     */
+    @Test
+    void testImport_OtherViolationFails() {
+        userRepository.deleteAll();
+        String export = """
+                {"userName":"valid0","password":"{bcrypt}hash0","balance":1}
+                {"userName":"valid1","password":"{bcrypt}hash1","balance":1}
+                {"userName":"%s","password":"{bcrypt}hash2","balance":1}
+                """.formatted("x".repeat(300));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                userTransferService.importUsers(new ByteArrayInputStream(export.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(userRepository.findByUsername("valid1").isPresent());
+    }
+}